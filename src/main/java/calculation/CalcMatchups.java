@@ -40,17 +40,21 @@ public class CalcMatchups {
     log.info("Beginning calcMatchups");
 
     // Extract position IDs
-    PositionIds positionIds = PositionIds.from(nflPlayers.values());
+    PositionIds positionIds = PositionIds.forPlayers(nflPlayers);
+
+    // Group matchups by roster and matchup ID once for the per-user and opponent lookups
+    MatchupIndex index = new MatchupIndex(matchups);
 
     // Calculate user matchup statistics (includes bench points)
     List<UserMatchupStats> userMatchupStats =
-        calculateUserMatchupStats(rosters, matchups, users, positionIds);
+        calculateUserMatchupStats(rosters, index, users, positionIds);
 
     // Calculate peak player statistics
     MatchupReport.PeakPlayerStats peakPlayerStats = calculatePeakPlayerStats(nflPlayers, matchups);
 
     // Calculate close matchup statistics
-    CloseMatchupResults closeMatchupResults = calculateCloseMatchups(matchups, users, rosters);
+    CloseMatchupResults closeMatchupResults =
+        calculateCloseMatchups(matchups, index, users, rosters);
 
     // Build complete report
     return MatchupReport.builder()
@@ -78,14 +82,11 @@ public class CalcMatchups {
   /**
    * Calculate bench points for a user across all matchups.
    *
-   * @param matchups all matchups
-   * @param roster user's roster
+   * @param userMatchups user's matchups with points scored
    * @return total points scored by bench players
    */
-  private static double calculateBenchPoints(List<Matchup> matchups, Roster roster) {
-    return matchups.stream()
-        .filter(matchup -> matchup.getPoints() > 0)
-        .filter(matchup -> matchup.getRosterId() == roster.getRosterId())
+  private static double calculateBenchPoints(List<Matchup> userMatchups) {
+    return userMatchups.stream()
         .flatMap(
             matchup ->
                 matchup.getPlayerPoints().entrySet().stream()
@@ -101,7 +102,7 @@ public class CalcMatchups {
    * @return CloseMatchupResults containing closest loss info and close loss counts
    */
   private static CloseMatchupResults calculateCloseMatchups(
-      List<Matchup> matchups, List<User> users, List<Roster> rosters) {
+      List<Matchup> matchups, MatchupIndex index, List<User> users, List<Roster> rosters) {
 
     if (matchups.isEmpty()) {
       log.warn("No matchups available for close matchup analysis");
@@ -109,10 +110,10 @@ public class CalcMatchups {
     }
 
     // Find closest loss
-    MatchupReport.ClosestMatchupInfo closestLoss = findClosestLoss(matchups, users, rosters);
+    MatchupReport.ClosestMatchupInfo closestLoss = findClosestLoss(matchups, index, users, rosters);
 
     // Count close losses per user
-    Map<String, Integer> closeLossCounts = countCloseLosses(matchups, users, rosters);
+    Map<String, Integer> closeLossCounts = countCloseLosses(matchups, index, users, rosters);
 
     return new CloseMatchupResults(closestLoss, closeLossCounts);
   }
@@ -121,24 +122,19 @@ public class CalcMatchups {
    * Find and log the closest loss across all matchups.
    *
    * @param matchups list of all matchups
+   * @param index the matchups by roster and matchup ID
    * @param users list of users
    * @param rosters list of rosters
    * @return ClosestMatchupInfo with user and point difference, or null if no matchups
    */
   private static MatchupReport.ClosestMatchupInfo findClosestLoss(
-      List<Matchup> matchups, List<User> users, List<Roster> rosters) {
+      List<Matchup> matchups, MatchupIndex index, List<User> users, List<Roster> rosters) {
 
     Matchup loserWithClosestLoss = null;
     double minPointDiff = Double.MAX_VALUE;
 
     for (Matchup matchup : matchups) {
-      Matchup otherMatchup =
-          matchups.stream()
-              .filter(m -> m.getMatchupId() == matchup.getMatchupId())
-              .filter(m -> m.getRosterId() != matchup.getRosterId())
-              .findFirst()
-              .orElseThrow(
-                  () -> new NoSuchElementException("Failed to find other matchup for: " + matchup));
+      Matchup otherMatchup = index.opponent(matchup);
 
       double pointDiff = Math.abs(matchup.getPoints() - otherMatchup.getPoints());
       Matchup loser = matchup.getPoints() < otherMatchup.getPoints() ? matchup : otherMatchup;
@@ -165,23 +161,18 @@ public class CalcMatchups {
    * Count and log losses within the close matchup threshold for each user.
    *
    * @param matchups list of all matchups
+   * @param index the matchups by roster and matchup ID
    * @param users list of users
    * @param rosters list of rosters
    * @return map of user names to count of close losses
    */
   private static Map<String, Integer> countCloseLosses(
-      List<Matchup> matchups, List<User> users, List<Roster> rosters) {
+      List<Matchup> matchups, MatchupIndex index, List<User> users, List<Roster> rosters) {
 
     Map<String, Integer> closeLossesPerUser = new HashMap<>();
 
     for (Matchup matchup : matchups) {
-      Matchup otherMatchup =
-          matchups.stream()
-              .filter(m -> m.getMatchupId() == matchup.getMatchupId())
-              .filter(m -> m.getRosterId() != matchup.getRosterId())
-              .findFirst()
-              .orElseThrow(
-                  () -> new NoSuchElementException("Failed to find other matchup for: " + matchup));
+      Matchup otherMatchup = index.opponent(matchup);
 
       double pointDiff = Math.abs(matchup.getPoints() - otherMatchup.getPoints());
 
@@ -203,7 +194,7 @@ public class CalcMatchups {
    * @return list of user matchup statistics
    */
   private static List<UserMatchupStats> calculateUserMatchupStats(
-      List<Roster> rosters, List<Matchup> matchups, List<User> users, PositionIds positionIds) {
+      List<Roster> rosters, MatchupIndex index, List<User> users, PositionIds positionIds) {
 
     List<UserMatchupStats> userStatsList = new ArrayList<>();
 
@@ -215,9 +206,8 @@ public class CalcMatchups {
 
       // find player matchups
       List<Matchup> userMatchups =
-          matchups.stream()
+          index.forRoster(roster.getRosterId()).stream()
               .filter(matchup -> matchup.getPoints() > 0)
-              .filter(matchup -> matchup.getRosterId() == roster.getRosterId())
               .toList();
 
       // Calculate all position points in a single pass
@@ -229,7 +219,7 @@ public class CalcMatchups {
       int numDonuts = countDonuts(userMatchups);
 
       // Calculate bench points
-      double totalBenchPoints = calculateBenchPoints(matchups, roster);
+      double totalBenchPoints = calculateBenchPoints(userMatchups);
 
       // Build user stats object for report
       UserMatchupStats stats =
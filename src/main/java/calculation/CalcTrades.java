@@ -38,7 +38,7 @@ public class CalcTrades {
     log.info("Beginning calcTrades");
 
     // Extract position IDs
-    PositionIds positionIds = PositionIds.from(nflPlayers.values());
+    PositionIds positionIds = PositionIds.forPlayers(nflPlayers);
 
     // Filter completed trades
     List<Transaction> trades =
@@ -37,7 +37,7 @@ public class CalcWaivers {
     log.info("Beginning calcWaivers");
 
     // Extract position IDs
-    PositionIds positionIds = PositionIds.from(nflPlayers.values());
+    PositionIds positionIds = PositionIds.forPlayers(nflPlayers);
 
     // Filter completed waivers
     List<Transaction> waivers =
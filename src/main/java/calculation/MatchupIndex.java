@@ -0,0 +1,58 @@
+package calculation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import model.Matchup;
+
+/**
+ * Matchups grouped by roster and by matchup ID, built once per analysis so per-user statistics and
+ * opponent lookups read only the matchups they need instead of rescanning every matchup. Each group
+ * keeps the order of the original list, so lookups return the same matchups a scan would.
+ */
+public class MatchupIndex {
+
+  private final Map<Integer, List<Matchup>> byRosterId = new HashMap<>();
+  private final Map<Integer, List<Matchup>> byMatchupId = new HashMap<>();
+
+  /**
+   * Indexes matchups.
+   *
+   * @param matchups the matchups to index
+   */
+  public MatchupIndex(List<Matchup> matchups) {
+    for (Matchup matchup : matchups) {
+      byRosterId.computeIfAbsent(matchup.getRosterId(), id -> new ArrayList<>()).add(matchup);
+      byMatchupId.computeIfAbsent(matchup.getMatchupId(), id -> new ArrayList<>()).add(matchup);
+    }
+  }
+
+  /**
+   * Gets the matchups of a roster.
+   *
+   * @param rosterId the roster ID
+   * @return the roster's matchups, in their original order
+   */
+  public List<Matchup> forRoster(int rosterId) {
+    return byRosterId.getOrDefault(rosterId, List.of());
+  }
+
+  /**
+   * Finds the opposing side of a matchup: the first matchup with the same matchup ID and another
+   * roster.
+   *
+   * @param matchup the matchup
+   * @return the opponent's matchup
+   * @throws NoSuchElementException if no other roster has the matchup ID
+   */
+  public Matchup opponent(Matchup matchup) {
+    for (Matchup other : byMatchupId.getOrDefault(matchup.getMatchupId(), List.of())) {
+      if (other.getRosterId() != matchup.getRosterId()) {
+        return other;
+      }
+    }
+    throw new NoSuchElementException("Failed to find other matchup for: " + matchup);
+  }
+}
@@ -37,4 +37,27 @@ public class LeagueDto {
 
   @JsonProperty("draft_id")
   private String draftId;
+
+  @JsonProperty("settings")
+  private SettingsDto settings;
+
+  /** DTO for the league settings that determine which weeks of the season exist. */
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class SettingsDto {
+    @JsonProperty("start_week")
+    private Integer startWeek;
+
+    @JsonProperty("playoff_week_start")
+    private Integer playoffWeekStart;
+
+    @JsonProperty("playoff_teams")
+    private Integer playoffTeams;
+
+    @JsonProperty("playoff_round_type")
+    private Integer playoffRoundType;
+
+    @JsonProperty("leg")
+    private Integer leg;
+  }
 }
@@ -0,0 +1,25 @@
+package model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/** DTO representing the Sleeper API NFL state response: the current season and week. */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NflStateDto {
+  @JsonProperty("week")
+  private int week;
+
+  @JsonProperty("leg")
+  private int leg;
+
+  @JsonProperty("season")
+  private String season;
+
+  @JsonProperty("season_type")
+  private String seasonType;
+
+  @JsonProperty("display_week")
+  private int displayWeek;
+}
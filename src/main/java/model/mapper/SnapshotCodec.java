@@ -0,0 +1,456 @@
+package model.mapper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import model.Matchup;
+import model.Player;
+import model.Position;
+import model.Transaction;
+
+/**
+ * Binary encoding of the mapped domain models, used to snapshot them so a warm run can skip parsing
+ * the cached JSON and mapping it with {@link DomainMapper}. Fields are written in declaration order
+ * without names; any change to the encoding or to the models it covers must increment {@link
+ * #VERSION}, which makes existing snapshots stale.
+ */
+public class SnapshotCodec {
+
+  /** Version of the encoding, stored in every snapshot. */
+  public static final int VERSION = 1;
+
+  // Length or ordinal written for a null value
+  private static final int NULL = -1;
+
+  /**
+   * Writes the NFL players.
+   *
+   * @param out the snapshot output
+   * @param players NFL players by ID
+   * @throws IOException if the output cannot be written
+   */
+  public static void writePlayers(DataOutput out, Map<String, Player> players) throws IOException {
+    out.writeInt(players.size());
+    for (Map.Entry<String, Player> entry : players.entrySet()) {
+      Player player = entry.getValue();
+      writeString(out, entry.getKey());
+      writeString(out, player.getPlayerId());
+      writeString(out, player.getFirstName());
+      writeString(out, player.getLastName());
+      writeEnum(out, player.getPosition());
+      if (player.getFantasyPositions() == null) {
+        out.writeInt(NULL);
+      } else {
+        out.writeInt(player.getFantasyPositions().size());
+        for (Position position : player.getFantasyPositions()) {
+          writeEnum(out, position);
+        }
+      }
+      out.writeBoolean(player.getAge() != null);
+      if (player.getAge() != null) {
+        out.writeInt(player.getAge());
+      }
+    }
+  }
+
+  /**
+   * Reads the NFL players.
+   *
+   * @param in the snapshot input
+   * @return NFL players by ID
+   * @throws IOException if the input is truncated or malformed
+   */
+  public static Map<String, Player> readPlayers(DataInput in) throws IOException {
+    Position[] positions = Position.values();
+    int size = in.readInt();
+    Map<String, Player> players = new HashMap<>(size * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      String key = readString(in);
+      Player.PlayerBuilder player =
+          Player.builder()
+              .playerId(readString(in))
+              .firstName(readString(in))
+              .lastName(readString(in))
+              .position(readEnum(in, positions));
+      int fantasyPositionCount = in.readInt();
+      if (fantasyPositionCount != NULL) {
+        List<Position> fantasyPositions = new ArrayList<>(fantasyPositionCount);
+        for (int j = 0; j < fantasyPositionCount; j++) {
+          fantasyPositions.add(readEnum(in, positions));
+        }
+        player.fantasyPositions(fantasyPositions);
+      }
+      if (in.readBoolean()) {
+        player.age(in.readInt());
+      }
+      players.put(key, player.build());
+    }
+    return players;
+  }
+
+  /**
+   * Writes matchups.
+   *
+   * @param out the snapshot output
+   * @param matchups the matchups
+   * @throws IOException if the output cannot be written
+   */
+  public static void writeMatchups(DataOutput out, List<Matchup> matchups) throws IOException {
+    out.writeInt(matchups.size());
+    for (Matchup matchup : matchups) {
+      out.writeInt(matchup.getRosterId());
+      out.writeInt(matchup.getMatchupId());
+      writeStrings(out, matchup.getStarters());
+      writeStrings(out, matchup.getPlayers());
+      out.writeDouble(matchup.getPoints());
+      Map<String, Double> playerPoints = matchup.getPlayerPoints();
+      if (playerPoints == null) {
+        out.writeInt(NULL);
+      } else {
+        out.writeInt(playerPoints.size());
+        for (Map.Entry<String, Double> entry : playerPoints.entrySet()) {
+          writeString(out, entry.getKey());
+          writeDouble(out, entry.getValue());
+        }
+      }
+      if (matchup.getStarterPoints() == null) {
+        out.writeInt(NULL);
+      } else {
+        out.writeInt(matchup.getStarterPoints().size());
+        for (Double points : matchup.getStarterPoints()) {
+          writeDouble(out, points);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads matchups.
+   *
+   * @param in the snapshot input
+   * @return the matchups
+   * @throws IOException if the input is truncated or malformed
+   */
+  public static List<Matchup> readMatchups(DataInput in) throws IOException {
+    int size = in.readInt();
+    List<Matchup> matchups = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Matchup.MatchupBuilder matchup =
+          Matchup.builder()
+              .rosterId(in.readInt())
+              .matchupId(in.readInt())
+              .starters(readStrings(in))
+              .players(readStrings(in))
+              .points(in.readDouble());
+      int playerPointCount = in.readInt();
+      if (playerPointCount != NULL) {
+        Map<String, Double> playerPoints = new LinkedHashMap<>(playerPointCount * 4 / 3 + 1);
+        for (int j = 0; j < playerPointCount; j++) {
+          playerPoints.put(readString(in), readDouble(in));
+        }
+        matchup.playerPoints(playerPoints);
+      }
+      int starterPointCount = in.readInt();
+      if (starterPointCount != NULL) {
+        List<Double> starterPoints = new ArrayList<>(starterPointCount);
+        for (int j = 0; j < starterPointCount; j++) {
+          starterPoints.add(readDouble(in));
+        }
+        matchup.starterPoints(starterPoints);
+      }
+      matchups.add(matchup.build());
+    }
+    return matchups;
+  }
+
+  /**
+   * Writes transactions.
+   *
+   * @param out the snapshot output
+   * @param transactions the transactions
+   * @throws IOException if the output cannot be written
+   */
+  public static void writeTransactions(DataOutput out, List<Transaction> transactions)
+      throws IOException {
+    out.writeInt(transactions.size());
+    for (Transaction transaction : transactions) {
+      out.writeLong(transaction.getStatusUpdated());
+      out.writeLong(transaction.getCreated());
+      writeLongs(out, transaction.getRosterIds());
+      writeLongs(out, transaction.getConsenterIds());
+      writeIntMap(out, transaction.getDrops());
+      writeIntMap(out, transaction.getAdds());
+      writeEnum(out, transaction.getType());
+      writeEnum(out, transaction.getStatus());
+      List<Transaction.WaiverBudget> waiverBudget = transaction.getWaiverBudget();
+      if (waiverBudget == null) {
+        out.writeInt(NULL);
+      } else {
+        out.writeInt(waiverBudget.size());
+        for (Transaction.WaiverBudget budget : waiverBudget) {
+          out.writeBoolean(budget != null);
+          if (budget != null) {
+            out.writeInt(budget.getAmount());
+            out.writeInt(budget.getReceiver());
+            out.writeInt(budget.getSender());
+          }
+        }
+      }
+      out.writeBoolean(transaction.getSettings() != null);
+      if (transaction.getSettings() != null) {
+        out.writeInt(transaction.getSettings().getWaiverBid());
+      }
+    }
+  }
+
+  /**
+   * Reads transactions.
+   *
+   * @param in the snapshot input
+   * @return the transactions
+   * @throws IOException if the input is truncated or malformed
+   */
+  public static List<Transaction> readTransactions(DataInput in) throws IOException {
+    Transaction.Type[] types = Transaction.Type.values();
+    Transaction.Status[] statuses = Transaction.Status.values();
+    int size = in.readInt();
+    List<Transaction> transactions = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Transaction.TransactionBuilder transaction =
+          Transaction.builder()
+              .statusUpdated(in.readLong())
+              .created(in.readLong())
+              .rosterIds(readLongs(in))
+              .consenterIds(readLongs(in))
+              .drops(readIntMap(in))
+              .adds(readIntMap(in))
+              .type(readEnum(in, types))
+              .status(readEnum(in, statuses));
+      int waiverBudgetCount = in.readInt();
+      if (waiverBudgetCount != NULL) {
+        List<Transaction.WaiverBudget> waiverBudget = new ArrayList<>(waiverBudgetCount);
+        for (int j = 0; j < waiverBudgetCount; j++) {
+          waiverBudget.add(
+              in.readBoolean()
+                  ? Transaction.WaiverBudget.builder()
+                      .amount(in.readInt())
+                      .receiver(in.readInt())
+                      .sender(in.readInt())
+                      .build()
+                  : null);
+        }
+        transaction.waiverBudget(waiverBudget);
+      }
+      if (in.readBoolean()) {
+        transaction.settings(Transaction.Settings.builder().waiverBid(in.readInt()).build());
+      }
+      transactions.add(transaction.build());
+    }
+    return transactions;
+  }
+
+  /**
+   * Writes a string that may be null.
+   *
+   * @param out the snapshot output
+   * @param value the string
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeString(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  /**
+   * Reads a string that may be null.
+   *
+   * @param in the snapshot input
+   * @return the string
+   * @throws IOException if the input is truncated or malformed
+   */
+  private static String readString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /**
+   * Writes a list of strings that may be null or hold nulls.
+   *
+   * @param out the snapshot output
+   * @param values the strings
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+    if (values == null) {
+      out.writeInt(NULL);
+      return;
+    }
+    out.writeInt(values.size());
+    for (String value : values) {
+      writeString(out, value);
+    }
+  }
+
+  /**
+   * Reads a list of strings that may be null or hold nulls.
+   *
+   * @param in the snapshot input
+   * @return the strings
+   * @throws IOException if the input is truncated or malformed
+   */
+  private static List<String> readStrings(DataInput in) throws IOException {
+    int size = in.readInt();
+    if (size == NULL) {
+      return null;
+    }
+    List<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(readString(in));
+    }
+    return values;
+  }
+
+  /**
+   * Writes a list of longs that may be null or hold nulls.
+   *
+   * @param out the snapshot output
+   * @param values the longs
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeLongs(DataOutput out, List<Long> values) throws IOException {
+    if (values == null) {
+      out.writeInt(NULL);
+      return;
+    }
+    out.writeInt(values.size());
+    for (Long value : values) {
+      out.writeBoolean(value != null);
+      if (value != null) {
+        out.writeLong(value);
+      }
+    }
+  }
+
+  /**
+   * Reads a list of longs that may be null or hold nulls.
+   *
+   * @param in the snapshot input
+   * @return the longs
+   * @throws IOException if the input is truncated or malformed
+   */
+  private static List<Long> readLongs(DataInput in) throws IOException {
+    int size = in.readInt();
+    if (size == NULL) {
+      return null;
+    }
+    List<Long> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(in.readBoolean() ? in.readLong() : null);
+    }
+    return values;
+  }
+
+  /**
+   * Writes a map of strings to integers that may be null or hold null values.
+   *
+   * @param out the snapshot output
+   * @param values the map
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeIntMap(DataOutput out, Map<String, Integer> values) throws IOException {
+    if (values == null) {
+      out.writeInt(NULL);
+      return;
+    }
+    out.writeInt(values.size());
+    for (Map.Entry<String, Integer> entry : values.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeBoolean(entry.getValue() != null);
+      if (entry.getValue() != null) {
+        out.writeInt(entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Reads a map of strings to integers that may be null or hold null values, keeping its order.
+   *
+   * @param in the snapshot input
+   * @return the map
+   * @throws IOException if the input is truncated or malformed
+   */
+  private static Map<String, Integer> readIntMap(DataInput in) throws IOException {
+    int size = in.readInt();
+    if (size == NULL) {
+      return null;
+    }
+    Map<String, Integer> values = new LinkedHashMap<>(size * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      String key = readString(in);
+      values.put(key, in.readBoolean() ? in.readInt() : null);
+    }
+    return values;
+  }
+
+  /**
+   * Writes a double that may be null.
+   *
+   * @param out the snapshot output
+   * @param value the double
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeDouble(DataOutput out, Double value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeDouble(value);
+    }
+  }
+
+  /**
+   * Reads a double that may be null.
+   *
+   * @param in the snapshot input
+   * @return the double
+   * @throws IOException if the input is truncated or malformed
+   */
+  private static Double readDouble(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readDouble() : null;
+  }
+
+  /**
+   * Writes an enum constant that may be null, by ordinal.
+   *
+   * @param out the snapshot output
+   * @param value the constant
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+    out.writeByte(value != null ? value.ordinal() : NULL);
+  }
+
+  /**
+   * Reads an enum constant that may be null.
+   *
+   * @param in the snapshot input
+   * @param constants the constants of the enum
+   * @param <E> the enum type
+   * @return the constant
+   * @throws IOException if the input is truncated or the ordinal is unknown
+   */
+  private static <E extends Enum<E>> E readEnum(DataInput in, E[] constants) throws IOException {
+    int ordinal = in.readByte();
+    if (ordinal == NULL) {
+      return null;
+    }
+    if (ordinal < 0 || ordinal >= constants.length) {
+      throw new IOException("Unknown " + constants.getClass().getComponentType() + " " + ordinal);
+    }
+    return constants[ordinal];
+  }
+}
@@ -0,0 +1,283 @@
+package runner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import model.Player;
+import service.HttpService;
+import service.ReportService;
+import util.DataHelper;
+import util.LeagueHistory;
+import util.RefreshMode;
+
+/**
+ * Runs the analyses for many league chains in one process on a bounded worker pool.
+ *
+ * <p>Each chain is identified by its newest league ID; its earlier seasons are discovered through
+ * {@link LeagueHistory}. All chains share one load of the NFL players (and the position IDs derived
+ * from it), the HTTP client and rate limiter, the response memo and the template engine. Reports of
+ * each chain are written to {@code output/reports/<league id>}.
+ */
+@Slf4j
+public class BatchRunner {
+
+  private static final int DEFAULT_WORKERS = 4;
+
+  /**
+   * Entry point for batch runs.
+   *
+   * <p>Options: {@code --leagues <file>} (one newest league ID per line, {@code #} starts a
+   * comment), {@code --league <ids>} (comma-separated) and {@code --workers <n>} (default 4). The
+   * refresh and analysis options of {@link CommandLineOptions} apply to every chain; {@code --year}
+   * does not, as every season of each chain is analyzed.
+   *
+   * @param args command-line arguments
+   */
+  public static void main(String... args) {
+    Set<String> startLeagueIds = new LinkedHashSet<>();
+    int workers = DEFAULT_WORKERS;
+    List<String> remainingArgs = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i].toLowerCase()) {
+          case "--leagues" -> startLeagueIds.addAll(readLeagueFile(Paths.get(value(args, ++i))));
+          case "--league" -> {
+            for (String leagueId : value(args, ++i).split(",")) {
+              if (!leagueId.isBlank()) {
+                startLeagueIds.add(leagueId.trim());
+              }
+            }
+          }
+          case "--workers" -> workers = parseWorkers(value(args, ++i));
+          default -> remainingArgs.add(args[i]);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      exitWithError(e.getMessage());
+    }
+
+    CommandLineOptions options = null;
+    try {
+      options = CommandLineOptions.parse(remainingArgs.toArray(new String[0]));
+    } catch (IllegalArgumentException e) {
+      exitWithError(e.getMessage());
+    }
+
+    if (options.isHelpRequested()) {
+      System.out.println(getHelpMessage());
+      System.exit(0);
+    }
+    if (startLeagueIds.isEmpty()) {
+      exitWithError("No leagues given. Use --leagues <file> or --league <ids>");
+    }
+
+    int failures = run(List.copyOf(startLeagueIds), workers, options);
+    DataHelper.awaitCacheWrites();
+
+    log.info("HTTP transfer: {}", HttpService.getTransferStats());
+    if (failures > 0) {
+      log.error("{} of {} league chains failed", failures, startLeagueIds.size());
+      System.exit(1);
+    }
+    log.info("All {} league chains complete!", startLeagueIds.size());
+  }
+
+  /**
+   * Analyzes every league chain with at most {@code workers} chains in progress at once. The NFL
+   * players are loaded once, while the first chains discover their history.
+   *
+   * @param startLeagueIds newest league ID of each chain
+   * @param workers maximum number of chains analyzed at the same time
+   * @param options the selected analyses and refresh mode
+   * @return number of chains that failed
+   */
+  public static int run(List<String> startLeagueIds, int workers, CommandLineOptions options) {
+    RefreshMode refreshMode = options.getRefreshMode();
+    log.info(
+        "Running {} league chains on {} workers (refresh mode: {})",
+        startLeagueIds.size(),
+        workers,
+        refreshMode);
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            workers,
+            runnable -> {
+              Thread thread = new Thread(runnable, "batch-worker-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    CompletableFuture<Map<String, Player>> playersFuture =
+        CompletableFuture.supplyAsync(() -> DataHelper.getNflPlayers(refreshMode));
+    Supplier<Map<String, Player>> nflPlayers = () -> HttpService.join(playersFuture);
+
+    Map<String, Future<?>> futures = new LinkedHashMap<>();
+    for (String startLeagueId : startLeagueIds) {
+      futures.put(
+          startLeagueId, executor.submit(() -> runChain(startLeagueId, options, nflPlayers)));
+    }
+
+    int failures = 0;
+    try {
+      for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+        try {
+          entry.getValue().get();
+        } catch (ExecutionException e) {
+          failures++;
+          log.error("League chain {} failed: {}", entry.getKey(), e.getCause().getMessage());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error("Batch run interrupted");
+      failures += (int) futures.values().stream().filter(future -> !future.isDone()).count();
+    } finally {
+      executor.shutdownNow();
+    }
+    return failures;
+  }
+
+  /**
+   * Discovers one chain's seasons and generates its reports.
+   *
+   * @param startLeagueId newest league ID of the chain
+   * @param options the selected analyses and refresh mode
+   * @param nflPlayers supplies the shared NFL players
+   */
+  private static void runChain(
+      String startLeagueId, CommandLineOptions options, Supplier<Map<String, Player>> nflPlayers) {
+    long startTime = System.currentTimeMillis();
+    Map<Integer, String> leagueIdsByYear = LeagueHistory.discover(startLeagueId);
+    if (leagueIdsByYear.isEmpty()) {
+      throw new IllegalStateException("No seasons found for league " + startLeagueId);
+    }
+
+    List<Integer> years = List.copyOf(leagueIdsByYear.keySet());
+    String latestLeagueId = leagueIdsByYear.get(Collections.max(years));
+    Path reportsDirectory = ReportService.DEFAULT_REPORTS_DIRECTORY.resolve(startLeagueId);
+
+    log.info("Analyzing league chain {} (seasons {})", startLeagueId, years);
+    LeagueAnalysis.run(
+        List.copyOf(leagueIdsByYear.values()),
+        latestLeagueId,
+        years,
+        options,
+        nflPlayers,
+        reportsDirectory);
+    log.info(
+        "League chain {} complete in {}ms, reports in {}",
+        startLeagueId,
+        System.currentTimeMillis() - startTime,
+        reportsDirectory.toAbsolutePath());
+  }
+
+  /**
+   * Reads league IDs from a file with one ID per line. Blank lines and text after {@code #} are
+   * ignored.
+   *
+   * @param path the file to read
+   * @return the league IDs in file order
+   * @throws IllegalArgumentException if the file cannot be read
+   */
+  private static List<String> readLeagueFile(Path path) {
+    try {
+      return Files.readAllLines(path).stream()
+          .map(line -> line.replaceFirst("#.*", "").trim())
+          .filter(line -> !line.isEmpty())
+          .toList();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot read league file " + path + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the value following an option.
+   *
+   * @param args command-line arguments
+   * @param index index of the value
+   * @return the value
+   * @throws IllegalArgumentException if the value is missing
+   */
+  private static String value(String[] args, int index) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException(args[index - 1] + " requires a value");
+    }
+    return args[index];
+  }
+
+  /**
+   * Parses the worker count.
+   *
+   * @param value the option value
+   * @return the worker count
+   * @throws IllegalArgumentException if the value is not a positive integer
+   */
+  private static int parseWorkers(String value) {
+    try {
+      int workers = Integer.parseInt(value.trim());
+      if (workers < 1) {
+        throw new NumberFormatException("must be at least 1");
+      }
+      return workers;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "--workers must be a positive integer but was '" + value + "'");
+    }
+  }
+
+  /**
+   * Logs an argument error and exits.
+   *
+   * @param message the error message
+   */
+  private static void exitWithError(String message) {
+    log.error("Invalid arguments: {}", message);
+    System.err.println("Error: " + message);
+    System.err.println("\nUse --help to see available options");
+    System.exit(1);
+  }
+
+  /**
+   * Displays usage/help information for batch runs.
+   *
+   * @return help message as string
+   */
+  public static String getHelpMessage() {
+    return
+    """
+        Sleeper Fantasy Football Analytics - Batch Mode
+
+        Usage: java -cp sleeper.jar runner.BatchRunner [OPTIONS]
+
+        Options:
+          --leagues <file>           File with the newest league ID of each chain, one per line
+          --league <ids>             Newest league IDs of the chains, comma-separated
+          --workers <n>              Maximum number of chains analyzed at once (default: 4)
+          -r, --refresh              Force refresh data from Sleeper API (default: use cached data)
+          -i, --incremental          Refresh only data that can still change
+          -a, --analysis <types>     Analyses to run: trades, waivers, matchups, or all (default: all)
+          -h, --help                 Display this help message
+
+        Every season of each chain is analyzed; reports are written to output/reports/<league id>.
+        """;
+  }
+}
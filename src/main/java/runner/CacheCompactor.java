@@ -0,0 +1,34 @@
+package runner;
+
+import exception.SleeperApiException;
+import lombok.extern.slf4j.Slf4j;
+import util.DataHelper;
+
+/**
+ * Compacts the {@code sleeper_data} cache: rewrites each league's matchup and transaction segment
+ * without the payloads superseded by refreshes, and deletes cache files nothing refers to any more.
+ * It fails while another process is using the same cache directory.
+ */
+@Slf4j
+public class CacheCompactor {
+
+  /**
+   * Entry point for compacting the cache. Takes no options.
+   *
+   * @param args command-line arguments
+   */
+  public static void main(String... args) {
+    if (args.length > 0) {
+      System.err.println("Error: CacheCompactor takes no arguments");
+      System.exit(1);
+    }
+
+    try {
+      long reclaimed = DataHelper.compactCache();
+      log.info("Cache compacted, {} bytes reclaimed", reclaimed);
+    } catch (SleeperApiException e) {
+      log.error(e.getMessage());
+      System.exit(1);
+    }
+  }
+}
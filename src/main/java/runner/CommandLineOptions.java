@@ -7,10 +7,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import util.PropertiesUtil;
+import util.RefreshMode;
 
 /**
  * Parses and validates command-line arguments for the Sleeper analytics application. Supports
- * options for refreshing data, selecting years, and choosing specific analyses.
+ * options for fully or incrementally refreshing data, selecting years, and choosing specific
+ * analyses.
  */
 @Slf4j
 @Getter
@@ -18,6 +20,7 @@ import util.PropertiesUtil;
 public class CommandLineOptions {
 
   private final boolean forceRefresh;
+  private final boolean incrementalRefresh;
   private final Set<Integer> years;
   private final Set<AnalysisType> analyses;
   private final boolean helpRequested;
@@ -40,6 +43,7 @@ public class CommandLineOptions {
   public static CommandLineOptions parse(String... args) {
     PropertiesUtil props = PropertiesUtil.getInstance();
     boolean forceRefresh = false;
+    boolean incrementalRefresh = false;
     Set<Integer> years = new HashSet<>(props.getAvailableYears()); // default: all configured years
     Set<AnalysisType> analyses = new HashSet<>(List.of(AnalysisType.ALL)); // default: all
     boolean helpRequested = false;
@@ -54,6 +58,12 @@ public class CommandLineOptions {
           log.debug("Force refresh enabled");
           break;
 
+        case "--incremental":
+        case "-i":
+          incrementalRefresh = true;
+          log.debug("Incremental refresh enabled");
+          break;
+
         case "--help":
         case "-h":
           helpRequested = true;
@@ -89,7 +99,7 @@ public class CommandLineOptions {
       analyses = new HashSet<>(List.of(AnalysisType.ALL));
     }
 
-    return new CommandLineOptions(forceRefresh, years, analyses, helpRequested);
+    return new CommandLineOptions(forceRefresh, incrementalRefresh, years, analyses, helpRequested);
   }
 
   /**
@@ -169,6 +179,19 @@ public class CommandLineOptions {
     return analyses;
   }
 
+  /**
+   * Gets how cached data should be refreshed. A forced refresh takes precedence over an incremental
+   * one.
+   *
+   * @return the refresh mode
+   */
+  public RefreshMode getRefreshMode() {
+    if (forceRefresh) {
+      return RefreshMode.FULL;
+    }
+    return incrementalRefresh ? RefreshMode.INCREMENTAL : RefreshMode.CACHED;
+  }
+
   /**
    * Checks if a specific analysis type should be run based on the selected analyses.
    *
@@ -229,6 +252,8 @@ public class CommandLineOptions {
 
         Options:
           -r, --refresh              Force refresh data from Sleeper API (default: use cached data)
+          -i, --incremental          Refresh only data that can still change: NFL players and the
+                                     current and upcoming weeks of in-progress seasons
           -y, --year <years>         Specify years to analyze: %s, or all (default: all)
                                      Multiple years: --year %s
           -a, --analysis <types>     Specify analyses to run: trades, waivers, matchups, or all (default: all)
@@ -242,6 +267,9 @@ public class CommandLineOptions {
           java -jar sleeper.jar --refresh
                                      Refresh data and run all analyses
 
+          java -jar sleeper.jar --incremental
+                                     Refresh the current week and run all analyses
+
           java -jar sleeper.jar --year %d --analysis trades
                                      Analyze %d trades only using cached data
 
@@ -257,7 +285,7 @@ public class CommandLineOptions {
   @Override
   public String toString() {
     return String.format(
-        "CommandLineOptions{forceRefresh=%s, years=%s, analyses=%s}",
-        forceRefresh, years, analyses);
+        "CommandLineOptions{refreshMode=%s, years=%s, analyses=%s}",
+        getRefreshMode(), years, analyses);
   }
 }
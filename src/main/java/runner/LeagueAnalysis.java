@@ -0,0 +1,256 @@
+package runner;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import model.Matchup;
+import model.Player;
+import model.Roster;
+import model.Transaction;
+import model.User;
+import model.dto.LeagueDto;
+import model.dto.RosterDto;
+import model.mapper.DomainMapper;
+import service.HttpService;
+import service.ReportService;
+import service.SleeperRest;
+import util.DataHelper;
+import util.RefreshMode;
+
+/**
+ * Loads the data of one league chain and generates the selected reports. Used once per run by
+ * {@link Main} and once per league chain by {@link BatchRunner}, which share the NFL players and
+ * all other process-wide state between chains.
+ */
+@Slf4j
+public class LeagueAnalysis {
+
+  /**
+   * Loads the league data and generates the selected reports.
+   *
+   * <p>Loading is a small dependency graph: players, rosters, the league, users, transactions and
+   * matchups are all requested at once, and each report starts as soon as its own inputs are ready,
+   * so a cold run takes about as long as the slowest dataset plus its report.
+   *
+   * @param leagueIds league IDs of the seasons to analyze
+   * @param latestLeagueId league ID of the most recent season, used for league info and users
+   * @param years the seasons covered by the analysis
+   * @param options the selected analyses and refresh mode
+   * @param nflPlayers supplies the NFL players; called while the league requests are in flight
+   * @param reportsDirectory directory the reports are written to
+   * @throws IllegalStateException if the league has no rosters or users
+   */
+  public static void run(
+      List<String> leagueIds,
+      String latestLeagueId,
+      List<Integer> years,
+      CommandLineOptions options,
+      Supplier<Map<String, Player>> nflPlayers,
+      Path reportsDirectory) {
+    RefreshMode refreshMode = options.getRefreshMode();
+    boolean runTrades = options.shouldRunAnalysis(CommandLineOptions.AnalysisType.TRADES);
+    boolean runWaivers = options.shouldRunAnalysis(CommandLineOptions.AnalysisType.WAIVERS);
+    boolean runMatchups = options.shouldRunAnalysis(CommandLineOptions.AnalysisType.MATCHUPS);
+
+    ExecutorService executor = Executors.newCachedThreadPool(newThreadFactory());
+    try {
+      // Independent datasets; players, transactions and matchups load on their own threads
+      log.info("Fetching league data...");
+      CompletableFuture<Map<String, Player>> playersFuture =
+          CompletableFuture.supplyAsync(nflPlayers, executor);
+      CompletableFuture<List<Roster>> rostersFuture = getRostersAsync(leagueIds);
+      CompletableFuture<LeagueDto> leagueFuture = SleeperRest.getLeagueAsync(latestLeagueId);
+      CompletableFuture<List<User>> usersFuture =
+          SleeperRest.getUsersAsync(latestLeagueId)
+              .thenApply(users -> users.stream().map(DomainMapper::toUser).toList());
+      CompletableFuture<List<Transaction>> transactionsFuture =
+          runTrades || runWaivers
+              ? CompletableFuture.supplyAsync(
+                  () -> loadTransactions(leagueIds, refreshMode), executor)
+              : CompletableFuture.completedFuture(null);
+      CompletableFuture<List<Matchup>> matchupsFuture =
+          runMatchups
+              ? CompletableFuture.supplyAsync(() -> loadMatchups(leagueIds, refreshMode), executor)
+              : CompletableFuture.completedFuture(null);
+
+      // Common inputs of every analysis
+      CompletableFuture<CommonData> commonFuture =
+          CompletableFuture.allOf(playersFuture, rostersFuture, usersFuture)
+              .thenApply(
+                  ignored -> {
+                    CommonData common =
+                        new CommonData(
+                            playersFuture.join(), rostersFuture.join(), usersFuture.join());
+                    validateData(common.players(), common.rosters(), common.users());
+                    log.info("{} NFL players loaded", common.players().size());
+                    log.info("{} rosters loaded", common.rosters().size());
+                    log.info("{} users loaded", common.users().size());
+                    return common;
+                  });
+
+      // Each report waits only for its own inputs
+      List<CompletableFuture<Void>> reports = new ArrayList<>();
+      if (runTrades) {
+        reports.add(
+            commonFuture.thenAcceptBothAsync(
+                transactionsFuture,
+                (common, transactions) ->
+                    ReportService.generateTradeReport(
+                        common.rosters(),
+                        common.players(),
+                        transactions,
+                        common.users(),
+                        reportsDirectory),
+                executor));
+      }
+      if (runWaivers) {
+        reports.add(
+            commonFuture.thenAcceptBothAsync(
+                transactionsFuture,
+                (common, transactions) ->
+                    ReportService.generateWaiverReport(
+                        common.rosters(),
+                        common.players(),
+                        transactions,
+                        common.users(),
+                        reportsDirectory),
+                executor));
+      }
+      if (runMatchups) {
+        reports.add(
+            commonFuture.thenAcceptBothAsync(
+                matchupsFuture,
+                (common, matchups) ->
+                    ReportService.generateMatchupReport(
+                        common.rosters(),
+                        common.players(),
+                        matchups,
+                        common.users(),
+                        reportsDirectory),
+                executor));
+      }
+
+      // League overview report (index page)
+      reports.add(
+          leagueFuture.thenAcceptBothAsync(
+              commonFuture,
+              (league, common) ->
+                  ReportService.generateLeagueReport(
+                      DomainMapper.toLeague(league), common.users(), years, reportsDirectory),
+              executor));
+
+      HttpService.join(CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0])));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Loads the transactions of the selected leagues.
+   *
+   * @param leagueIds league IDs to load transactions for
+   * @param refreshMode which cached rounds to revalidate
+   * @return the transactions
+   */
+  private static List<Transaction> loadTransactions(
+      List<String> leagueIds, RefreshMode refreshMode) {
+    log.info("Fetching transaction data...");
+    List<Transaction> transactions = DataHelper.getTransactions(leagueIds, refreshMode);
+    log.info("{} transactions loaded", transactions.size());
+    return transactions;
+  }
+
+  /**
+   * Loads the matchups of the selected leagues.
+   *
+   * @param leagueIds league IDs to load matchups for
+   * @param refreshMode which cached rounds to revalidate
+   * @return the matchups
+   */
+  private static List<Matchup> loadMatchups(List<String> leagueIds, RefreshMode refreshMode) {
+    log.info("Fetching matchup data...");
+    List<Matchup> matchups = DataHelper.getMatchups(leagueIds, refreshMode);
+    log.info("{} matchups loaded", matchups.size());
+    return matchups;
+  }
+
+  /**
+   * Validate that essential data has been loaded successfully.
+   *
+   * @param nflPlayers map of NFL players
+   * @param rosters list of rosters
+   * @param users list of users
+   * @throws IllegalStateException if there are no rosters or users to analyze
+   */
+  private static void validateData(
+      Map<String, Player> nflPlayers, List<Roster> rosters, List<User> users) {
+
+    if (nflPlayers.isEmpty()) {
+      log.warn("No NFL players loaded. Analysis results may be incomplete.");
+    }
+
+    if (rosters.isEmpty()) {
+      throw new IllegalStateException(
+          "No rosters found for selected leagues. Cannot proceed with analysis.");
+    }
+
+    if (users.isEmpty()) {
+      throw new IllegalStateException("No users found. Cannot proceed with analysis.");
+    }
+  }
+
+  /**
+   * Gets rosters for the specified league IDs, requesting all leagues concurrently.
+   *
+   * @param leagueIds list of league IDs to fetch rosters for
+   * @return future completing with all rosters across the specified leagues
+   */
+  private static CompletableFuture<List<Roster>> getRostersAsync(List<String> leagueIds) {
+    List<CompletableFuture<List<RosterDto>>> futures =
+        leagueIds.stream().map(SleeperRest::getRostersAsync).toList();
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored ->
+                futures.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(Collection::stream)
+                    .distinct()
+                    .map(DomainMapper::toRoster)
+                    .toList());
+  }
+
+  /**
+   * Creates daemon threads for the loading and report tasks, named after the calling thread so
+   * concurrent league chains can be told apart in the logs.
+   *
+   * @return the thread factory
+   */
+  private static ThreadFactory newThreadFactory() {
+    String prefix = Thread.currentThread().getName() + "-load-";
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Inputs shared by every analysis.
+   *
+   * @param players NFL players by ID
+   * @param rosters rosters of the selected leagues
+   * @param users users of the latest league
+   */
+  private record CommonData(Map<String, Player> players, List<Roster> rosters, List<User> users) {}
+}
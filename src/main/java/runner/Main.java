@@ -1,19 +1,14 @@
 package runner;
 
-import java.util.Collection;
+import exception.SleeperApiException;
 import java.util.List;
-import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
-import model.Matchup;
-import model.Player;
-import model.Roster;
-import model.Transaction;
-import model.User;
-import model.mapper.DomainMapper;
+import service.HttpService;
 import service.ReportService;
-import service.SleeperRest;
 import util.DataHelper;
+import util.LeagueHistory;
 import util.PropertiesUtil;
+import util.RefreshMode;
 
 @Slf4j
 public class Main {
@@ -28,6 +23,9 @@ public class Main {
    */
   public static void main(String... args) {
 
+    // Find past seasons when only the newest league is configured
+    discoverLeagueHistory();
+
     // Parse command-line arguments
     CommandLineOptions options = parseCommandLineOptions(args);
 
@@ -39,7 +37,8 @@ public class Main {
 
     log.info("Starting Sleeper Analytics with options: {}", options);
     log.info("Selected years: {}", options.getYears());
-    log.info("Force refresh: {}", options.isForceRefresh());
+    RefreshMode refreshMode = options.getRefreshMode();
+    log.info("Refresh mode: {}", refreshMode);
 
     // Get selected league IDs based on year selection
     List<String> selectedLeagueIds = options.getSelectedLeagueIds();
@@ -48,102 +47,36 @@ public class Main {
       System.exit(1);
     }
 
-    // Fetch common data needed for all analyses
-    log.info("Fetching common data...");
-    Map<String, Player> nflPlayers = DataHelper.getNflPlayers(options.isForceRefresh());
-    List<Roster> rosters = getRosters(selectedLeagueIds);
     String latestLeagueId = getLatestLeagueId(options);
-    model.League league = DomainMapper.toLeague(SleeperRest.getLeague(latestLeagueId));
-    List<User> users =
-        SleeperRest.getUsers(latestLeagueId).stream().map(DomainMapper::toUser).toList();
-
-    // Validate data
-    validateData(nflPlayers, rosters, users);
-
-    log.info("{} NFL players loaded", nflPlayers.size());
-    log.info("{} rosters loaded", rosters.size());
-    log.info("{} users loaded", users.size());
-
-    // Fetch analysis-specific data only when needed
-    List<Transaction> transactions = null;
-    List<Matchup> matchups = null;
-
-    boolean needTransactions =
-        options.shouldRunAnalysis(CommandLineOptions.AnalysisType.TRADES)
-            || options.shouldRunAnalysis(CommandLineOptions.AnalysisType.WAIVERS);
-    boolean needMatchups = options.shouldRunAnalysis(CommandLineOptions.AnalysisType.MATCHUPS);
-
-    if (needTransactions) {
-      log.info("Fetching transaction data...");
-      transactions = DataHelper.getTransactions(selectedLeagueIds, options.isForceRefresh());
-      log.info("{} transactions loaded", transactions.size());
-    }
-
-    if (needMatchups) {
-      log.info("Fetching matchup data...");
-      matchups = DataHelper.getMatchups(selectedLeagueIds, options.isForceRefresh());
-      log.info("{} matchups loaded", matchups.size());
-    }
-
-    // Run selected analyses
-    if (options.shouldRunAnalysis(CommandLineOptions.AnalysisType.TRADES)) {
-      ReportService.generateTradeReport(rosters, nflPlayers, transactions, users);
-    }
-
-    if (options.shouldRunAnalysis(CommandLineOptions.AnalysisType.WAIVERS)) {
-      ReportService.generateWaiverReport(rosters, nflPlayers, transactions, users);
-    }
-
-    if (options.shouldRunAnalysis(CommandLineOptions.AnalysisType.MATCHUPS)) {
-      ReportService.generateMatchupReport(rosters, nflPlayers, matchups, users);
+    try {
+      LeagueAnalysis.run(
+          selectedLeagueIds,
+          latestLeagueId,
+          options.getYears().stream().toList(),
+          options,
+          () -> DataHelper.getNflPlayers(refreshMode),
+          ReportService.DEFAULT_REPORTS_DIRECTORY);
+    } catch (IllegalStateException e) {
+      log.error(e.getMessage());
+      System.exit(1);
     }
 
-    // Generate league overview report (index page)
-    ReportService.generateLeagueReport(league, users, options.getYears().stream().toList());
-
+    DataHelper.awaitCacheWrites();
+    log.info("HTTP transfer: {}", HttpService.getTransferStats());
     log.info("All analyses complete!");
   }
 
-  /**
-   * Validate that essential data has been loaded successfully.
-   *
-   * @param nflPlayers map of NFL players
-   * @param rosters list of rosters
-   * @param users list of users
-   */
-  private static void validateData(
-      Map<String, Player> nflPlayers, List<Roster> rosters, List<User> users) {
-
-    if (nflPlayers.isEmpty()) {
-      log.warn("No NFL players loaded. Analysis results may be incomplete.");
-    }
-
-    if (rosters.isEmpty()) {
-      log.error("No rosters found for selected leagues. Cannot proceed with analysis.");
-      System.exit(1);
-    }
-
-    if (users.isEmpty()) {
-      log.error("No users found. Cannot proceed with analysis.");
+  /** Discover league IDs from the configured league's history, exiting if that fails. */
+  private static void discoverLeagueHistory() {
+    try {
+      LeagueHistory.discoverConfiguredHistory();
+    } catch (SleeperApiException e) {
+      log.error("League history discovery failed: {}", e.getMessage());
+      System.err.println("Error: could not discover league history: " + e.getMessage());
       System.exit(1);
     }
   }
 
-  /**
-   * Gets rosters for the specified league IDs.
-   *
-   * @param leagueIds list of league IDs to fetch rosters for
-   * @return list of all rosters across the specified leagues
-   */
-  private static List<Roster> getRosters(List<String> leagueIds) {
-    return leagueIds.stream()
-        .map(SleeperRest::getRosters)
-        .flatMap(Collection::stream)
-        .distinct()
-        .map(DomainMapper::toRoster)
-        .toList();
-  }
-
   /**
    * Parse command-line arguments and handle errors.
    *
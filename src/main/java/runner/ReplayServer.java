@@ -0,0 +1,503 @@
+package runner;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exception.SleeperApiException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import service.HttpService;
+import util.CacheEncoding;
+import util.CacheFormat;
+import util.FileHelper;
+import util.PropertiesUtil;
+import util.SegmentStore;
+
+/**
+ * Local stand-in for the Sleeper API that serves recorded payloads, so concurrency, retries and
+ * caching can be benchmarked offline and reproducibly.
+ *
+ * <p>Payloads are read from the {@code sleeper_data} cache written by {@link util.DataHelper}
+ * (players, and matchups and transactions in segments or per-round files, in any {@link
+ * CacheEncoding}) and otherwise from {@code sleeper_data/replay/<api path>.json}. With {@code
+ * --record}, missing payloads are fetched from the real API and saved there first. Responses carry
+ * an ETag, honour {@code If-None-Match} and are gzip-compressed when the client accepts it, like
+ * the real API.
+ *
+ * <p>Latency, server errors and throttling (HTTP 429) can be injected. Point the application at the
+ * server with {@code -Dsleeper.api.base.url=http://localhost:<port>/v1}.
+ *
+ * <p>{@link #main} turns on TCP_NODELAY ({@code sun.net.httpserver.nodelay}) unless it is set
+ * explicitly, since the JDK server leaves it off and Nagle's algorithm combined with delayed ACKs
+ * would otherwise add around 40 ms to every response and swamp any latency being measured.
+ */
+@Slf4j
+public class ReplayServer {
+
+  private static final Pattern SAFE_PATH = Pattern.compile("[A-Za-z0-9_]+(/[A-Za-z0-9_]+)*");
+  private static final Pattern ROUND_PATH =
+      Pattern.compile("league/([A-Za-z0-9_]+)/(matchups|transactions)/([0-9]+)");
+
+  private final Path dataDirectory;
+  private final String upstreamUrl;
+  private final boolean record;
+  private final long latencyMs;
+  private final long jitterMs;
+  private final double errorRate;
+  private final double throttleRate;
+  private final Random random;
+  private final SegmentStore segments;
+  private final AtomicLong served = new AtomicLong();
+  private final AtomicLong notModified = new AtomicLong();
+  private final AtomicLong injectedErrors = new AtomicLong();
+  private final AtomicLong injectedThrottles = new AtomicLong();
+
+  /**
+   * Creates a replay server configuration.
+   *
+   * @param dataDirectory directory holding the recorded payloads
+   * @param upstreamUrl base URL of the real API, used when recording
+   * @param record whether to fetch and save payloads that have not been recorded yet
+   * @param latencyMs fixed delay added to every response
+   * @param jitterMs maximum random delay added on top of the fixed delay
+   * @param errorRate fraction of requests answered with HTTP 503
+   * @param throttleRate fraction of requests answered with HTTP 429
+   * @param seed seed for the fault injection, so runs can be repeated
+   */
+  public ReplayServer(
+      Path dataDirectory,
+      String upstreamUrl,
+      boolean record,
+      long latencyMs,
+      long jitterMs,
+      double errorRate,
+      double throttleRate,
+      long seed) {
+    this.dataDirectory = dataDirectory;
+    this.upstreamUrl = upstreamUrl;
+    this.record = record;
+    this.latencyMs = latencyMs;
+    this.jitterMs = jitterMs;
+    this.errorRate = errorRate;
+    this.throttleRate = throttleRate;
+    this.random = new Random(seed);
+    this.segments = SegmentStore.openReadOnly(dataDirectory);
+  }
+
+  /**
+   * Starts a replay server from command-line arguments and serves until the JVM is stopped.
+   *
+   * <p>Options: {@code --port <n>} (default 8089), {@code --data <dir>} (default sleeper_data),
+   * {@code --latency-ms <n>}, {@code --jitter-ms <n>}, {@code --error-rate <0..1>}, {@code
+   * --throttle-rate <0..1>}, {@code --seed <n>}, {@code --threads <n>} (default 32) and {@code
+   * --record}.
+   *
+   * @param args command-line arguments
+   * @throws IOException if the server cannot bind to the port
+   */
+  public static void main(String... args) throws IOException {
+    // Read once, when the first server is created
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    int port = 8089;
+    int threads = 32;
+    Path dataDirectory = Paths.get("sleeper_data");
+    boolean record = false;
+    long latencyMs = 0;
+    long jitterMs = 0;
+    double errorRate = 0;
+    double throttleRate = 0;
+    long seed = 42;
+
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i].toLowerCase();
+      switch (arg) {
+        case "--record" -> record = true;
+        case "--port" -> port = (int) parseLong(args, ++i, arg);
+        case "--threads" -> threads = (int) parseLong(args, ++i, arg);
+        case "--data" -> dataDirectory = Paths.get(value(args, ++i, arg));
+        case "--latency-ms" -> latencyMs = parseLong(args, ++i, arg);
+        case "--jitter-ms" -> jitterMs = parseLong(args, ++i, arg);
+        case "--error-rate" -> errorRate = parseRate(args, ++i, arg);
+        case "--throttle-rate" -> throttleRate = parseRate(args, ++i, arg);
+        case "--seed" -> seed = parseLong(args, ++i, arg);
+        default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    String upstreamUrl = PropertiesUtil.getInstance().getSleeperApiBaseUrl();
+    ReplayServer replayServer =
+        new ReplayServer(
+            dataDirectory, upstreamUrl, record, latencyMs, jitterMs, errorRate, throttleRate, seed);
+    HttpServer server = replayServer.start(port, threads);
+
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  server.stop(0);
+                  replayServer.logSummary();
+                }));
+  }
+
+  /**
+   * Binds the server to a local port and starts serving under the upstream base path (e.g. {@code
+   * /v1}).
+   *
+   * @param port the port to listen on, or 0 for any free port
+   * @param threads number of threads handling requests; injected latency holds one per request
+   * @return the running server
+   * @throws IOException if the server cannot bind to the port
+   */
+  public HttpServer start(int port, int threads) throws IOException {
+    String basePath = URI.create(upstreamUrl).getPath();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads,
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "replay-server-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    server.setExecutor(executor);
+    server.createContext(basePath, exchange -> handle(exchange, basePath));
+    server.start();
+
+    log.info(
+        "Replaying {} at http://localhost:{}{} (latency {}+{}ms, error rate {}, throttle rate {},"
+            + " record {})",
+        dataDirectory.toAbsolutePath(),
+        server.getAddress().getPort(),
+        basePath,
+        latencyMs,
+        jitterMs,
+        errorRate,
+        throttleRate,
+        record);
+    return server;
+  }
+
+  /** Logs how many requests were served and how many faults were injected. */
+  public void logSummary() {
+    log.info(
+        "Replay server served {} responses ({} not modified), injected {} errors and {} throttles",
+        served.get(),
+        notModified.get(),
+        injectedErrors.get(),
+        injectedThrottles.get());
+  }
+
+  /**
+   * Handles one request: injects latency and faults, then serves the recorded payload.
+   *
+   * @param exchange the HTTP exchange
+   * @param basePath the path the server is mounted at
+   * @throws IOException if the response cannot be written
+   */
+  private void handle(HttpExchange exchange, String basePath) throws IOException {
+    try (exchange) {
+      String apiPath = exchange.getRequestURI().getPath().substring(basePath.length());
+      apiPath = apiPath.replaceAll("^/+|/+$", "");
+      log.debug("{} /{}", exchange.getRequestMethod(), apiPath);
+
+      double errorRoll;
+      double throttleRoll;
+      long delay;
+      synchronized (random) {
+        errorRoll = random.nextDouble();
+        throttleRoll = random.nextDouble();
+        delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+      }
+      sleep(delay);
+
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendText(exchange, 405, "Method not allowed");
+        return;
+      }
+      if (throttleRoll < throttleRate) {
+        injectedThrottles.incrementAndGet();
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        sendText(exchange, 429, "Too many requests");
+        return;
+      }
+      if (errorRoll < errorRate) {
+        injectedErrors.incrementAndGet();
+        sendText(exchange, 503, "Injected server error");
+        return;
+      }
+      if (!SAFE_PATH.matcher(apiPath).matches()) {
+        sendText(exchange, 404, "Not found");
+        return;
+      }
+
+      byte[] payload = loadPayload(apiPath);
+      if (payload == null) {
+        sendText(exchange, 404, "No recording for " + apiPath);
+        return;
+      }
+      sendPayload(exchange, payload);
+    }
+  }
+
+  /**
+   * Loads the recorded payload for an API path, recording it first if enabled.
+   *
+   * @param apiPath the API path below the base URL, e.g. {@code league/123/users}
+   * @return the payload, or null if there is no recording
+   * @throws IOException if the recording cannot be read
+   */
+  private byte[] loadPayload(String apiPath) throws IOException {
+    byte[] segmentPayload = loadSegmentPayload(apiPath);
+    if (segmentPayload != null) {
+      return segmentPayload;
+    }
+
+    Path basePath = resolve(apiPath);
+    for (CacheEncoding encoding : CacheEncoding.all()) {
+      Path cachedPath = encoding.resolve(basePath);
+      if (Files.isRegularFile(cachedPath)) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (InputStream in = encoding.newInputStream(cachedPath)) {
+          encoding.format().toJson(in, json, false);
+        }
+        return json.toByteArray();
+      }
+    }
+    if (!record) {
+      return null;
+    }
+
+    try {
+      String body = HttpService.get(upstreamUrl + "/" + apiPath, "Failed recording " + apiPath);
+      FileHelper.write(CacheFormat.JSON.resolve(basePath), body);
+      return body.getBytes(StandardCharsets.UTF_8);
+    } catch (SleeperApiException e) {
+      log.warn("Could not record {}: {}", apiPath, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Loads a league round cached in a {@link SegmentStore} segment. Segments are read-only and
+   * reopened whenever a client sharing the data directory rewrites their index, so rounds it
+   * appends are served; rounds whose payload does not match the index, e.g. while the segment is
+   * being compacted, are treated as not cached.
+   *
+   * @param apiPath the API path below the base URL
+   * @return the round as JSON, or null if the path is not a round or the round is not cached
+   * @throws IOException if the segment cannot be read
+   */
+  private byte[] loadSegmentPayload(String apiPath) throws IOException {
+    Matcher matcher = ROUND_PATH.matcher(apiPath);
+    if (!matcher.matches()) {
+      return null;
+    }
+
+    int round = Integer.parseInt(matcher.group(3));
+    SegmentStore.Segment segment = segments.segment(matcher.group(2), matcher.group(1));
+    SegmentStore.Entry entry = segment.get(round);
+    byte[] payload = entry != null ? segment.readVerified(round, entry) : null;
+    if (payload == null) {
+      return null;
+    }
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    try (InputStream in = entry.encoding().newInputStream(payload)) {
+      entry.format().toJson(in, json, false);
+    }
+    return json.toByteArray();
+  }
+
+  /**
+   * Maps an API path to its recording, reusing the application's cache layout where one exists.
+   *
+   * @param apiPath the API path below the base URL
+   * @return path of the recording without extension
+   */
+  private Path resolve(String apiPath) {
+    if (apiPath.equals("players/nfl")) {
+      return dataDirectory.resolve("nfl_players");
+    }
+
+    Matcher matcher = ROUND_PATH.matcher(apiPath);
+    if (matcher.matches()) {
+      String leagueId = matcher.group(1);
+      String round = matcher.group(3);
+      return matcher.group(2).equals("matchups")
+          ? dataDirectory.resolve("matchups/matchup_" + leagueId + "_" + round)
+          : dataDirectory.resolve("transactions/transaction_" + leagueId + "_" + round);
+    }
+    return dataDirectory.resolve("replay").resolve(apiPath);
+  }
+
+  /**
+   * Sends a payload with an ETag, answering 304 if the client already has it and compressing it if
+   * the client accepts gzip.
+   *
+   * @param exchange the HTTP exchange
+   * @param payload the recorded payload
+   * @throws IOException if the response cannot be written
+   */
+  private void sendPayload(HttpExchange exchange, byte[] payload) throws IOException {
+    String etag = "\"" + sha256(payload) + "\"";
+    exchange.getResponseHeaders().set("ETag", etag);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      notModified.incrementAndGet();
+      served.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      return;
+    }
+
+    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    byte[] body = payload;
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 4 + 64);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(payload);
+      }
+      body = compressed.toByteArray();
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+
+    served.incrementAndGet();
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Sends a plain-text response.
+   *
+   * @param exchange the HTTP exchange
+   * @param statusCode the status code
+   * @param message the response body
+   * @throws IOException if the response cannot be written
+   */
+  private static void sendText(HttpExchange exchange, int statusCode, String message)
+      throws IOException {
+    byte[] body = message.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(statusCode, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Sleeps for the injected latency.
+   *
+   * @param millis delay in milliseconds
+   */
+  private static void sleep(long millis) {
+    if (millis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Hashes a payload for use as its ETag.
+   *
+   * @param payload the payload
+   * @return hex-encoded SHA-256 digest
+   */
+  private static String sha256(byte[] payload) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * Gets the value following an option.
+   *
+   * @param args command-line arguments
+   * @param index index of the value
+   * @param option the option name, for error messages
+   * @return the value
+   * @throws IllegalArgumentException if the value is missing
+   */
+  private static String value(String[] args, int index, String option) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException(option + " requires a value");
+    }
+    return args[index];
+  }
+
+  /**
+   * Parses the non-negative integer following an option.
+   *
+   * @param args command-line arguments
+   * @param index index of the value
+   * @param option the option name, for error messages
+   * @return the parsed value
+   * @throws IllegalArgumentException if the value is missing or invalid
+   */
+  private static long parseLong(String[] args, int index, String option) {
+    String value = value(args, index, option);
+    try {
+      long parsed = Long.parseLong(value);
+      if (parsed < 0) {
+        throw new NumberFormatException("negative");
+      }
+      return parsed;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          option + " must be a non-negative integer but was '" + value + "'", e);
+    }
+  }
+
+  /**
+   * Parses the fraction between 0 and 1 following an option.
+   *
+   * @param args command-line arguments
+   * @param index index of the value
+   * @param option the option name, for error messages
+   * @return the parsed value
+   * @throws IllegalArgumentException if the value is missing or out of range
+   */
+  private static double parseRate(String[] args, int index, String option) {
+    String value = value(args, index, option);
+    try {
+      double parsed = Double.parseDouble(value);
+      if (parsed < 0 || parsed > 1) {
+        throw new NumberFormatException("out of range");
+      }
+      return parsed;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          option + " must be a number between 0 and 1 but was '" + value + "'", e);
+    }
+  }
+}
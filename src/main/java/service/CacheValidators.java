@@ -0,0 +1,38 @@
+package service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.net.http.HttpHeaders;
+
+/**
+ * HTTP cache validators identifying one version of a response, used to revalidate a cached copy
+ * with a conditional GET ({@code If-None-Match} / {@code If-Modified-Since}).
+ *
+ * @param etag the {@code ETag} header value, or null if the server sent none
+ * @param lastModified the {@code Last-Modified} header value, or null if the server sent none
+ */
+public record CacheValidators(String etag, String lastModified) {
+
+  /** Validators for a response that has never been fetched. */
+  public static final CacheValidators NONE = new CacheValidators(null, null);
+
+  /**
+   * Extracts the validators from response headers.
+   *
+   * @param headers the response headers
+   * @return validators sent by the server, possibly empty
+   */
+  public static CacheValidators from(HttpHeaders headers) {
+    return new CacheValidators(
+        headers.firstValue("ETag").orElse(null), headers.firstValue("Last-Modified").orElse(null));
+  }
+
+  /**
+   * Checks whether there is nothing to revalidate with.
+   *
+   * @return true if neither validator is present
+   */
+  @JsonIgnore
+  public boolean isEmpty() {
+    return etag == null && lastModified == null;
+  }
+}
@@ -0,0 +1,11 @@
+package service;
+
+/**
+ * Result of a conditional GET request.
+ *
+ * @param notModified true if the server answered 304 and the cached copy is still current
+ * @param body the value read from the response body, or null when not modified
+ * @param validators validators for the current version of the resource
+ * @param <T> type the body was read into
+ */
+public record ConditionalResponse<T>(boolean notModified, T body, CacheValidators validators) {}
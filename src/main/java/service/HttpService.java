@@ -1,23 +1,91 @@
 package service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import exception.SleeperApiException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 import lombok.extern.slf4j.Slf4j;
+import util.CountingInputStream;
+import util.PropertiesUtil;
 
 /**
  * Generic HTTP service for making REST API calls. Provides reusable HTTP communication with error
  * handling and logging.
+ *
+ * <p>All requests share one {@link RateLimiter}, so concurrent callers together stay within the
+ * configured request budget. Throttling responses (HTTP 429), server errors (5xx) and network
+ * failures are retried with jittered exponential backoff.
+ *
+ * <p>Requests advertise gzip and deflate support, and compressed bodies are decompressed as they
+ * are read. Byte counts before and after decompression are logged per request and accumulated in
+ * {@link #getTransferStats()}.
+ *
+ * <p>Requests are sent through a replaceable {@link HttpTransport}, so load tests can run against
+ * an in-process stand-in or, with {@code sleeper.api.base.url} pointed at {@code
+ * runner.ReplayServer}, against recorded payloads instead of the live API.
  */
 @Slf4j
 public class HttpService {
   private static final int HTTP_OK = 200;
-  private static final HttpClient HTTP_CLIENT =
-      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+  private static final int HTTP_NOT_MODIFIED = 304;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_SERVER_ERROR = 500;
+  private static final long MAX_BACKOFF_MS = 30_000;
+  private static final int MAX_RETRIES = PropertiesUtil.getInstance().getMaxRetries();
+  private static final long RETRY_BASE_DELAY_MS =
+      PropertiesUtil.getInstance().getRetryBaseDelayMs();
+  private static final RateLimiter RATE_LIMITER =
+      new RateLimiter(PropertiesUtil.getInstance().getRequestsPerMinute());
+  private static final AtomicLong RESPONSES_DECODED = new AtomicLong();
+  private static final AtomicLong WIRE_BYTES = new AtomicLong();
+  private static final AtomicLong DECODED_BYTES = new AtomicLong();
+  private static final BodyReader<String> STRING_READER =
+      body -> new String(body.readAllBytes(), StandardCharsets.UTF_8);
+
+  private static volatile HttpTransport transport =
+      HttpTransport.of(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build());
+
+  /**
+   * Reads a decoded response body as it streams in.
+   *
+   * @param <T> type the body is read into
+   */
+  @FunctionalInterface
+  public interface BodyReader<T> {
+    /**
+     * Reads the body. The reader may close the stream; any bytes it leaves unread are drained after
+     * this returns.
+     *
+     * @param body the decoded response body
+     * @return the value read from the body
+     * @throws IOException if the body cannot be read
+     */
+    T read(InputStream body) throws IOException;
+  }
 
   /**
    * Executes a GET request to the specified URL and returns the response body.
@@ -25,45 +93,139 @@ public class HttpService {
    * @param url the URL to fetch
    * @param errorMessage the error message prefix for failures
    * @return response body as string
-   * @throws SleeperApiException if the request fails or status is not 200
+   * @throws SleeperApiException if the request fails or status is not 200 after all retries
    */
   public static String get(String url, String errorMessage) {
+    return getConditional(url, errorMessage, CacheValidators.NONE, STRING_READER).body();
+  }
+
+  /**
+   * Executes a conditional GET request and streams the response body into the given reader, so
+   * large bodies never have to be held in memory as a whole. If the server reports the resource
+   * unchanged (HTTP 304) no body is transferred and the caller should keep using its cached copy.
+   *
+   * <p>Throttling, server and network errors are retried with backoff as long as no body has been
+   * read yet. A failure while the body is streaming is not retried, because the reader may already
+   * have consumed part of it.
+   *
+   * @param url the URL to fetch
+   * @param errorMessage the error message prefix for failures
+   * @param validators validators of the cached copy, or {@link CacheValidators#NONE} to always
+   *     fetch the full body
+   * @param reader reads the decoded body of a 200 response
+   * @param <T> type the body is read into
+   * @return the response, either not modified or with the read body and new validators
+   * @throws SleeperApiException if the request fails or status is not 200/304 after all retries
+   */
+  public static <T> ConditionalResponse<T> getConditional(
+      String url, String errorMessage, CacheValidators validators, BodyReader<T> reader) {
     log.debug("GET request to: {}", url);
-    long startTime = System.currentTimeMillis();
+    HttpRequest request = buildRequest(url, validators);
 
-    try {
-      HttpRequest request =
-          HttpRequest.newBuilder()
-              .uri(URI.create(url))
-              .timeout(Duration.ofSeconds(30))
-              .GET()
-              .build();
-
-      HttpResponse<String> response =
-          HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-
-      long duration = System.currentTimeMillis() - startTime;
-      log.debug("Request completed in {}ms with status code: {}", duration, response.statusCode());
-
-      if (response.statusCode() != HTTP_OK) {
-        String message = String.format("%s: HTTP %d", errorMessage, response.statusCode());
-        String bodyPreview = truncate(response.body(), 200);
-        log.error("{} - Response: {}", message, bodyPreview);
-        throw new SleeperApiException(message, response.statusCode());
+    for (int attempt = 0; ; attempt++) {
+      long startTime = System.currentTimeMillis();
+      HttpResponse<InputStream> response;
+
+      try {
+        RATE_LIMITER.acquire();
+        response = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+      } catch (IOException e) {
+        if (attempt >= MAX_RETRIES) {
+          throw networkError(url, errorMessage, e);
+        }
+        sleepBeforeRetry(url, errorMessage, attempt, null);
+        continue;
+      } catch (InterruptedException e) {
+        throw interrupted(url, errorMessage, e);
       }
 
-      return response.body();
+      try (InputStream body = response.body()) {
+        if (shouldRetry(response, attempt)) {
+          sleepBeforeRetry(url, errorMessage, attempt, response);
+          continue;
+        }
+        if (response.statusCode() == HTTP_NOT_MODIFIED && !validators.isEmpty()) {
+          log.debug("Not modified since last fetch: {}", url);
+          RATE_LIMITER.onSuccess();
+          return new ConditionalResponse<>(true, null, validators);
+        }
+        T value =
+            readResponse(
+                url,
+                response.statusCode(),
+                response.headers(),
+                body,
+                errorMessage,
+                startTime,
+                reader);
+        return new ConditionalResponse<>(false, value, CacheValidators.from(response.headers()));
 
-    } catch (IOException e) {
-      log.error("Network error while fetching {}: {}", url, e.getMessage());
-      throw new SleeperApiException(errorMessage + ": Network error", e);
+      } catch (JsonProcessingException e) {
+        throw parseError(url, errorMessage, e);
+      } catch (IOException e) {
+        throw networkError(url, errorMessage, e);
+      }
+    }
+  }
+
+  /**
+   * Executes a non-blocking GET request to the specified URL. No thread is held while the request
+   * is in flight or waiting for a rate limit permit or retry.
+   *
+   * @param url the URL to fetch
+   * @param errorMessage the error message prefix for failures
+   * @return future completing with the response body, or exceptionally with a {@link
+   *     SleeperApiException} if the request fails or status is not 200 after all retries
+   */
+  public static CompletableFuture<String> getAsync(String url, String errorMessage) {
+    log.debug("Async GET request to: {}", url);
+    return sendAsync(buildRequest(url, CacheValidators.NONE), url, errorMessage, 0);
+  }
+
+  /**
+   * Waits for a future returned by one of the async methods and rethrows its failure unwrapped, so
+   * callers see the same {@link SleeperApiException} the blocking methods would throw.
+   *
+   * @param future the future to wait for
+   * @param <T> result type of the future
+   * @return the completed value
+   * @throws SleeperApiException if the request failed or the wait was interrupted
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new SleeperApiException("Async request failed", cause);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
-      log.error("Request interrupted while fetching {}: {}", url, e.getMessage());
-      throw new SleeperApiException(errorMessage + ": Request interrupted", e);
+      throw new SleeperApiException("Async request interrupted", e);
     }
   }
 
+  /**
+   * Gets the bytes received and decoded by all requests so far, for measuring how much bandwidth
+   * compression saves.
+   *
+   * @return snapshot of the accumulated transfer statistics
+   */
+  public static TransferStats getTransferStats() {
+    return new TransferStats(RESPONSES_DECODED.get(), WIRE_BYTES.get(), DECODED_BYTES.get());
+  }
+
+  /**
+   * Replaces the transport used for all subsequent requests. Requests already in flight finish on
+   * the previous transport.
+   *
+   * @param newTransport the transport to use
+   */
+  public static void setTransport(HttpTransport newTransport) {
+    transport = Objects.requireNonNull(newTransport, "transport");
+  }
+
   /**
    * Executes a GET request with default error message.
    *
@@ -75,6 +237,361 @@ public class HttpService {
     return get(url, "HTTP request failed");
   }
 
+  /**
+   * Sends one async attempt once a rate limit permit is available, chaining further attempts on
+   * retryable failures.
+   *
+   * @param request the request to send
+   * @param url the URL being fetched
+   * @param errorMessage the error message prefix for failures
+   * @param attempt zero-based attempt number
+   * @return future completing with the response body
+   */
+  private static CompletableFuture<String> sendAsync(
+      HttpRequest request, String url, String errorMessage, int attempt) {
+    Executor afterPermit =
+        CompletableFuture.delayedExecutor(RATE_LIMITER.reserve(), TimeUnit.NANOSECONDS);
+
+    return CompletableFuture.supplyAsync(System::currentTimeMillis, afterPermit)
+        .thenCompose(
+            startTime ->
+                transport
+                    .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .handle(
+                        (response, error) -> {
+                          if (error != null) {
+                            Throwable cause = unwrap(error);
+                            if (!(cause instanceof IOException ioException)) {
+                              return CompletableFuture.<String>failedFuture(
+                                  new SleeperApiException(
+                                      errorMessage + ": " + cause.getMessage(), cause));
+                            }
+                            if (attempt >= MAX_RETRIES) {
+                              return CompletableFuture.<String>failedFuture(
+                                  networkError(url, errorMessage, ioException));
+                            }
+                            return retryAsync(request, url, errorMessage, attempt, null);
+                          }
+
+                          if (shouldRetry(response, attempt)) {
+                            return retryAsync(request, url, errorMessage, attempt, response);
+                          }
+                          try {
+                            return CompletableFuture.completedFuture(
+                                readResponse(
+                                    url,
+                                    response.statusCode(),
+                                    response.headers(),
+                                    new ByteArrayInputStream(response.body()),
+                                    errorMessage,
+                                    startTime,
+                                    STRING_READER));
+                          } catch (JsonProcessingException e) {
+                            return CompletableFuture.<String>failedFuture(
+                                parseError(url, errorMessage, e));
+                          } catch (IOException e) {
+                            return CompletableFuture.<String>failedFuture(
+                                networkError(url, errorMessage, e));
+                          } catch (SleeperApiException e) {
+                            return CompletableFuture.<String>failedFuture(e);
+                          }
+                        })
+                    .thenCompose(Function.identity()));
+  }
+
+  /**
+   * Schedules the next async attempt after the backoff delay.
+   *
+   * @param request the request to send
+   * @param url the URL being fetched
+   * @param errorMessage the error message prefix for failures
+   * @param attempt zero-based number of the attempt that failed
+   * @param response the failed response, or null for a network error
+   * @return future completing with the response body
+   */
+  private static CompletableFuture<String> retryAsync(
+      HttpRequest request, String url, String errorMessage, int attempt, HttpResponse<?> response) {
+    Executor afterBackoff =
+        CompletableFuture.delayedExecutor(
+            backoffMillis(url, attempt, response), TimeUnit.MILLISECONDS);
+    return CompletableFuture.supplyAsync(() -> attempt + 1, afterBackoff)
+        .thenCompose(nextAttempt -> sendAsync(request, url, errorMessage, nextAttempt));
+  }
+
+  /**
+   * Checks whether a response is a throttling or server error that should be retried, and slows
+   * down the shared rate limiter if so.
+   *
+   * @param response the HTTP response
+   * @param attempt zero-based attempt number
+   * @return true if another attempt should be made
+   */
+  private static boolean shouldRetry(HttpResponse<?> response, int attempt) {
+    int statusCode = response.statusCode();
+    boolean throttled = statusCode == HTTP_TOO_MANY_REQUESTS || statusCode >= HTTP_SERVER_ERROR;
+    if (throttled) {
+      // Signals from requests already in flight within this window are the same episode
+      long window = Math.max(RETRY_BASE_DELAY_MS, retryAfterMillis(response));
+      RATE_LIMITER.onThrottled(Math.min(window, MAX_BACKOFF_MS));
+    }
+    return throttled && attempt < MAX_RETRIES;
+  }
+
+  /**
+   * Blocks for the backoff delay before the next attempt.
+   *
+   * @param url the URL being fetched
+   * @param errorMessage the error message prefix for failures
+   * @param attempt zero-based number of the attempt that failed
+   * @param response the failed response, or null for a network error
+   * @throws SleeperApiException if interrupted while waiting
+   */
+  private static void sleepBeforeRetry(
+      String url, String errorMessage, int attempt, HttpResponse<?> response) {
+    try {
+      Thread.sleep(backoffMillis(url, attempt, response));
+    } catch (InterruptedException e) {
+      throw interrupted(url, errorMessage, e);
+    }
+  }
+
+  /**
+   * Computes the delay before the next attempt: exponential backoff with jitter, never shorter than
+   * a {@code Retry-After} header sent by the server.
+   *
+   * @param url the URL being fetched
+   * @param attempt zero-based number of the attempt that failed
+   * @param response the failed response, or null for a network error
+   * @return delay in milliseconds
+   */
+  private static long backoffMillis(String url, int attempt, HttpResponse<?> response) {
+    long ceiling = Math.min(MAX_BACKOFF_MS, RETRY_BASE_DELAY_MS << Math.min(attempt, 16));
+    long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+
+    if (response != null) {
+      delay = Math.max(delay, retryAfterMillis(response));
+    }
+
+    log.warn(
+        "Request to {} failed{}, retrying in {}ms (retry {}/{})",
+        url,
+        response != null ? " with HTTP " + response.statusCode() : "",
+        delay,
+        attempt + 1,
+        MAX_RETRIES);
+    return Math.min(delay, MAX_BACKOFF_MS);
+  }
+
+  /**
+   * Reads the {@code Retry-After} header when it is given in seconds.
+   *
+   * @param response the HTTP response
+   * @return requested delay in milliseconds, or 0 if absent or not numeric
+   */
+  private static long retryAfterMillis(HttpResponse<?> response) {
+    return response
+        .headers()
+        .firstValue("Retry-After")
+        .map(
+            value -> {
+              try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+              } catch (NumberFormatException e) {
+                return 0L;
+              }
+            })
+        .orElse(0L);
+  }
+
+  /**
+   * Builds a GET request for the specified URL, made conditional on any validators given.
+   *
+   * @param url the URL to fetch
+   * @param validators validators of a cached copy, possibly empty
+   * @return the HTTP request
+   */
+  private static HttpRequest buildRequest(String url, CacheValidators validators) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .header("Accept-Encoding", "gzip, deflate")
+            .GET();
+
+    if (validators.etag() != null) {
+      builder.header("If-None-Match", validators.etag());
+    }
+    if (validators.lastModified() != null) {
+      builder.header("If-Modified-Since", validators.lastModified());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Logs the completed request, validates its status code and reads the body.
+   *
+   * @param url the URL being fetched
+   * @param statusCode the response status code
+   * @param headers the response headers
+   * @param wireStream the body as received over the wire
+   * @param errorMessage the error message prefix for failures
+   * @param startTime the time the request was started, in milliseconds
+   * @param reader reads the decoded body of a 200 response
+   * @param <T> type the body is read into
+   * @return the value read from the body
+   * @throws SleeperApiException if status is not 200
+   * @throws IOException if the body cannot be read
+   */
+  private static <T> T readResponse(
+      String url,
+      int statusCode,
+      HttpHeaders headers,
+      InputStream wireStream,
+      String errorMessage,
+      long startTime,
+      BodyReader<T> reader)
+      throws IOException {
+    long duration = System.currentTimeMillis() - startTime;
+    log.debug("Request completed in {}ms with status code: {}", duration, statusCode);
+
+    if (statusCode != HTTP_OK) {
+      String message = String.format("%s: HTTP %d", errorMessage, statusCode);
+      String bodyPreview = truncate(readBody(url, headers, wireStream, STRING_READER), 200);
+      log.error("{} - Response: {}", message, bodyPreview);
+      throw new SleeperApiException(message, statusCode);
+    }
+
+    T value = readBody(url, headers, wireStream, reader);
+    RATE_LIMITER.onSuccess();
+    return value;
+  }
+
+  /**
+   * Reads a response body, decompressing it while streaming according to its {@code
+   * Content-Encoding}, and records the byte counts before and after decompression.
+   *
+   * @param url the URL being fetched
+   * @param headers the response headers
+   * @param wireStream the body as received over the wire
+   * @param reader reads the decoded body
+   * @param <T> type the body is read into
+   * @return the value read from the body
+   * @throws IOException if the body cannot be read or decompressed
+   */
+  private static <T> T readBody(
+      String url, HttpHeaders headers, InputStream wireStream, BodyReader<T> reader)
+      throws IOException {
+    String encoding = headers.firstValue("Content-Encoding").orElse("identity");
+    CountingInputStream wire = new CountingInputStream(wireStream);
+
+    try (CountingInputStream decoded = new CountingInputStream(decode(wire, encoding))) {
+      // Readers such as Jackson close their input when done; keep the body open for draining
+      T value =
+          reader.read(
+              new FilterInputStream(decoded) {
+                @Override
+                public void close() {}
+              });
+      decoded.transferTo(OutputStream.nullOutputStream());
+
+      RESPONSES_DECODED.incrementAndGet();
+      WIRE_BYTES.addAndGet(wire.getCount());
+      DECODED_BYTES.addAndGet(decoded.getCount());
+      log.debug(
+          "Received {} bytes ({} decoded, encoding: {}) from {}",
+          wire.getCount(),
+          decoded.getCount(),
+          encoding,
+          url);
+      return value;
+    }
+  }
+
+  /**
+   * Wraps a body stream with the decompressor for its content encoding.
+   *
+   * @param wire the body as received over the wire
+   * @param encoding the {@code Content-Encoding} header value
+   * @return stream of decompressed bytes
+   * @throws IOException if the compressed stream header is invalid
+   */
+  private static InputStream decode(InputStream wire, String encoding) throws IOException {
+    switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+      case "gzip":
+      case "x-gzip":
+        return new GZIPInputStream(wire);
+      case "deflate":
+        // "deflate" should be zlib-wrapped, but some servers send a raw deflate stream
+        BufferedInputStream buffered = new BufferedInputStream(wire);
+        buffered.mark(2);
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+        boolean zlibWrapped = (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        return new InflaterInputStream(buffered, new Inflater(!zlibWrapped));
+      default:
+        return wire;
+    }
+  }
+
+  /**
+   * Logs and wraps a network failure.
+   *
+   * @param url the URL that was being fetched
+   * @param errorMessage the error message prefix for failures
+   * @param e the underlying I/O failure
+   * @return exception to throw
+   */
+  private static SleeperApiException networkError(String url, String errorMessage, IOException e) {
+    log.error("Network error while fetching {}: {}", url, e.getMessage());
+    return new SleeperApiException(errorMessage + ": Network error", e);
+  }
+
+  /**
+   * Logs and wraps a response body that could not be parsed, such as malformed or truncated JSON.
+   *
+   * @param url the URL that was being fetched
+   * @param errorMessage the error message prefix for failures
+   * @param e the underlying parse failure
+   * @return exception to throw
+   */
+  private static SleeperApiException parseError(
+      String url, String errorMessage, JsonProcessingException e) {
+    log.error("Invalid JSON response from {}: {}", url, e.getOriginalMessage());
+    return new SleeperApiException(errorMessage + ": Invalid JSON response", e);
+  }
+
+  /**
+   * Restores the interrupt flag, then logs and wraps the interruption.
+   *
+   * @param url the URL that was being fetched
+   * @param errorMessage the error message prefix for failures
+   * @param e the interruption
+   * @return exception to throw
+   */
+  private static SleeperApiException interrupted(
+      String url, String errorMessage, InterruptedException e) {
+    Thread.currentThread().interrupt();
+    log.error("Request interrupted while fetching {}: {}", url, e.getMessage());
+    return new SleeperApiException(errorMessage + ": Request interrupted", e);
+  }
+
+  /**
+   * Strips the {@link CompletionException}/{@link ExecutionException} wrappers added by
+   * CompletableFuture.
+   *
+   * @param error the error reported by a future
+   * @return the underlying cause
+   */
+  private static Throwable unwrap(Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
   /**
    * Truncates a string to the specified maximum length.
    *
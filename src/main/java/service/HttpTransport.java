@@ -0,0 +1,61 @@
+package service;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends HTTP requests on behalf of {@link HttpService}. The default transport is a shared JDK
+ * {@link HttpClient}; benchmarks and offline runs can install another one with {@link
+ * HttpService#setTransport(HttpTransport)}, for example to inject faults or count requests.
+ */
+public interface HttpTransport {
+
+  /**
+   * Sends a request and blocks until the response headers have arrived.
+   *
+   * @param request the request to send
+   * @param handler handles the response body
+   * @param <T> response body type
+   * @return the response
+   * @throws IOException if the request cannot be sent or the response cannot be received
+   * @throws InterruptedException if interrupted while waiting
+   */
+  <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+      throws IOException, InterruptedException;
+
+  /**
+   * Sends a request without blocking.
+   *
+   * @param request the request to send
+   * @param handler handles the response body
+   * @param <T> response body type
+   * @return future completing with the response
+   */
+  <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      HttpRequest request, HttpResponse.BodyHandler<T> handler);
+
+  /**
+   * Creates a transport that sends every request through the given client.
+   *
+   * @param client the client to use
+   * @return the transport
+   */
+  static HttpTransport of(HttpClient client) {
+    return new HttpTransport() {
+      @Override
+      public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+          throws IOException, InterruptedException {
+        return client.send(request, handler);
+      }
+
+      @Override
+      public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+          HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return client.sendAsync(request, handler);
+      }
+    };
+  }
+}
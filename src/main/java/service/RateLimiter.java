@@ -0,0 +1,125 @@
+package service;
+
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process-wide token bucket that paces outgoing requests to a requests-per-minute budget.
+ *
+ * <p>The rate adapts to server feedback: a throttling signal (HTTP 429 or 5xx) halves the current
+ * rate, and each successful request recovers a small step back towards the configured maximum.
+ * After a decrease, further signals are ignored until the backoff window has passed, since they
+ * come from requests sent before the rate dropped; a burst of concurrent 429s therefore counts as
+ * one throttling episode. This keeps throughput close to the allowed limit without repeatedly
+ * tripping it.
+ */
+@Slf4j
+public class RateLimiter {
+
+  private static final double MIN_RATE_FRACTION = 0.05;
+  private static final double RECOVERY_FRACTION = 0.02;
+
+  private final double maxPermitsPerSecond;
+  private final double minPermitsPerSecond;
+  private double permitsPerSecond;
+  private double storedPermits;
+  private long lastRefillNanos;
+  private long decreaseBlockedUntilNanos;
+
+  /**
+   * Creates a rate limiter allowing the given number of requests per minute. The bucket holds at
+   * most one second's worth of permits, which bounds the size of any burst.
+   *
+   * @param requestsPerMinute maximum sustained request rate
+   */
+  public RateLimiter(int requestsPerMinute) {
+    this.maxPermitsPerSecond = requestsPerMinute / 60.0;
+    this.minPermitsPerSecond = maxPermitsPerSecond * MIN_RATE_FRACTION;
+    this.permitsPerSecond = maxPermitsPerSecond;
+    this.storedPermits = capacity();
+    this.lastRefillNanos = System.nanoTime();
+    this.decreaseBlockedUntilNanos = lastRefillNanos;
+  }
+
+  /**
+   * Reserves a permit and returns how long the caller must wait before using it. Blocking callers
+   * sleep for the returned time; async callers schedule their request after it.
+   *
+   * @return wait time in nanoseconds, zero if a permit is available immediately
+   */
+  public synchronized long reserve() {
+    refill();
+    storedPermits -= 1;
+    if (storedPermits >= 0) {
+      return 0;
+    }
+    return (long) (-storedPermits / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+  }
+
+  /**
+   * Blocks until a permit is available.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /**
+   * Records a throttling signal from the server and halves the current rate, unless the rate was
+   * already halved within the backoff window of an earlier signal.
+   *
+   * @param backoffMillis how long the server asked clients to back off, e.g. its {@code
+   *     Retry-After}; signals within this window after the decrease are ignored
+   */
+  public synchronized void onThrottled(long backoffMillis) {
+    long now = System.nanoTime();
+    if (now - decreaseBlockedUntilNanos < 0) {
+      log.debug("Server is still throttling requests sent before the rate was reduced");
+      return;
+    }
+    refill();
+    permitsPerSecond = Math.max(minPermitsPerSecond, permitsPerSecond / 2);
+    storedPermits = Math.min(storedPermits, capacity());
+    decreaseBlockedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+    log.warn("Server is throttling requests, reducing rate to {}/min", getRequestsPerMinute());
+  }
+
+  /** Records a successful request and recovers part of the rate lost to throttling. */
+  public synchronized void onSuccess() {
+    if (permitsPerSecond < maxPermitsPerSecond) {
+      refill();
+      permitsPerSecond =
+          Math.min(maxPermitsPerSecond, permitsPerSecond + maxPermitsPerSecond * RECOVERY_FRACTION);
+    }
+  }
+
+  /**
+   * Gets the current, possibly reduced, request rate.
+   *
+   * @return current requests per minute
+   */
+  public synchronized int getRequestsPerMinute() {
+    return (int) Math.round(permitsPerSecond * 60);
+  }
+
+  /** Adds the permits accumulated since the last refill, capped at the bucket capacity. */
+  private void refill() {
+    long now = System.nanoTime();
+    double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    storedPermits = Math.min(capacity(), storedPermits + elapsedSeconds * permitsPerSecond);
+    lastRefillNanos = now;
+  }
+
+  /**
+   * Gets the bucket capacity, one second's worth of permits at the current rate.
+   *
+   * @return maximum number of stored permits
+   */
+  private double capacity() {
+    return Math.max(1, permitsPerSecond);
+  }
+}
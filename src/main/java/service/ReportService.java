@@ -3,6 +3,8 @@ package service;
 import calculation.CalcMatchups;
 import calculation.CalcTrades;
 import calculation.CalcWaivers;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
@@ -31,6 +33,9 @@ import util.ReportWriter;
 @Slf4j
 public class ReportService {
 
+  /** Directory reports are written to unless a run chooses its own. */
+  public static final Path DEFAULT_REPORTS_DIRECTORY = Paths.get("output", "reports");
+
   // Report output configuration
   private static final String TRADES_DIR = "trades";
   private static final String TRADES_FILE = "trade_report.json";
@@ -47,31 +52,31 @@ public class ReportService {
    * @param league league information from Sleeper API
    * @param users list of users in the league
    * @param years list of years covered in the analysis
+   * @param reportsDirectory directory the report is written to
    */
-  public static void generateLeagueReport(model.League league, List<User> users, List<Integer> years) {
+  public static void generateLeagueReport(
+      model.League league, List<User> users, List<Integer> years, Path reportsDirectory) {
     log.info("Generating league overview report...");
 
-    List<String> memberNames = users.stream()
-        .map(User::getName)
-        .sorted()
-        .toList();
-
-    LeagueReport report = LeagueReport.builder()
-        .generatedAt(LocalDateTime.now())
-        .leagueName(league.getName())
-        .currentSeason(league.getSeason())
-        .seasonType(league.getSeasonType())
-        .status(league.getStatus())
-        .totalRosters(league.getTotalRosters())
-        .years(years.stream().sorted().toList())
-        .members(memberNames)
-        .totalMembers(memberNames.size())
-        .earliestYear(years.stream().min(Integer::compareTo).orElse(0).toString())
-        .latestYear(years.stream().max(Integer::compareTo).orElse(0).toString())
-        .build();
+    List<String> memberNames = users.stream().map(User::getName).sorted().toList();
+
+    LeagueReport report =
+        LeagueReport.builder()
+            .generatedAt(LocalDateTime.now())
+            .leagueName(league.getName())
+            .currentSeason(league.getSeason())
+            .seasonType(league.getSeasonType())
+            .status(league.getStatus())
+            .totalRosters(league.getTotalRosters())
+            .years(years.stream().sorted().toList())
+            .members(memberNames)
+            .totalMembers(memberNames.size())
+            .earliestYear(years.stream().min(Integer::compareTo).orElse(0).toString())
+            .latestYear(years.stream().max(Integer::compareTo).orElse(0).toString())
+            .build();
 
     // Generate HTML report (no JSON needed for overview)
-    util.TemplateRenderer.renderReport(report, "index.html", "", "index.html");
+    util.TemplateRenderer.renderReport(report, "index.html", reportsDirectory, "", "index.html");
 
     log.info("League overview report written to index.html");
   }
@@ -85,23 +90,26 @@ public class ReportService {
    * @param nflPlayers map of NFL players
    * @param transactions list of transactions
    * @param users list of users
+   * @param reportsDirectory directory the reports are written to
    */
   public static void generateTradeReport(
       List<Roster> rosters,
       Map<String, Player> nflPlayers,
       List<Transaction> transactions,
-      List<User> users) {
+      List<User> users,
+      Path reportsDirectory) {
 
     log.info("Running trade analysis...");
     TradeReport report = CalcTrades.calcTrades(rosters, nflPlayers, transactions, users);
 
     // Generate JSON report
-    persistReport(report, TRADES_DIR, TRADES_FILE);
+    persistReport(report, reportsDirectory, TRADES_DIR, TRADES_FILE);
 
     // Generate HTML report
-    util.TemplateRenderer.renderReport(report, "trades.html", TRADES_DIR, "trade_report.html");
+    util.TemplateRenderer.renderReport(
+        report, "trades.html", reportsDirectory, TRADES_DIR, "trade_report.html");
 
-    log.info("Trade reports (JSON and HTML) written to {}", TRADES_DIR);
+    log.info("Trade reports (JSON and HTML) written to {}", reportsDirectory.resolve(TRADES_DIR));
   }
 
   /**
@@ -113,24 +121,26 @@ public class ReportService {
    * @param nflPlayers map of NFL players
    * @param transactions list of transactions
    * @param users list of users
+   * @param reportsDirectory directory the reports are written to
    */
   public static void generateWaiverReport(
       List<Roster> rosters,
       Map<String, Player> nflPlayers,
       List<Transaction> transactions,
-      List<User> users) {
+      List<User> users,
+      Path reportsDirectory) {
 
     log.info("Running waiver analysis...");
     WaiverReport report = CalcWaivers.calcWaivers(rosters, nflPlayers, transactions, users);
 
     // Generate JSON report
-    persistReport(report, WAIVERS_DIR, WAIVERS_FILE);
+    persistReport(report, reportsDirectory, WAIVERS_DIR, WAIVERS_FILE);
 
     // Generate HTML report
     util.TemplateRenderer.renderReport(
-        report, "waivers.html", WAIVERS_DIR, "waiver_report.html");
+        report, "waivers.html", reportsDirectory, WAIVERS_DIR, "waiver_report.html");
 
-    log.info("Waiver reports (JSON and HTML) written to {}", WAIVERS_DIR);
+    log.info("Waiver reports (JSON and HTML) written to {}", reportsDirectory.resolve(WAIVERS_DIR));
   }
 
   /**
@@ -144,24 +154,27 @@ public class ReportService {
    * @param nflPlayers map of NFL players
    * @param matchups list of matchups
    * @param users list of users
+   * @param reportsDirectory directory the reports are written to
    */
   public static void generateMatchupReport(
       List<Roster> rosters,
       Map<String, Player> nflPlayers,
       List<Matchup> matchups,
-      List<User> users) {
+      List<User> users,
+      Path reportsDirectory) {
 
     log.info("Running matchup analysis...");
     MatchupReport report = CalcMatchups.calcMatchups(rosters, nflPlayers, matchups, users);
 
     // Generate JSON report
-    persistReport(report, MATCHUPS_DIR, MATCHUPS_FILE);
+    persistReport(report, reportsDirectory, MATCHUPS_DIR, MATCHUPS_FILE);
 
     // Generate HTML report
     util.TemplateRenderer.renderReport(
-        report, "matchups.html", MATCHUPS_DIR, "matchup_report.html");
+        report, "matchups.html", reportsDirectory, MATCHUPS_DIR, "matchup_report.html");
 
-    log.info("Matchup reports (JSON and HTML) written to {}", MATCHUPS_DIR);
+    log.info(
+        "Matchup reports (JSON and HTML) written to {}", reportsDirectory.resolve(MATCHUPS_DIR));
 
     // Additional analysis: Find players whose first and last name start with same letter
     logPlayersWithMatchingInitials(nflPlayers, matchups);
@@ -174,11 +187,13 @@ public class ReportService {
    * database, email, etc.) without modifying calling code.
    *
    * @param report the report object to persist
+   * @param reportsDirectory directory the reports are written to
    * @param directory the subdirectory for the report
    * @param filename the filename for the report
    */
-  private static void persistReport(Object report, String directory, String filename) {
-    ReportWriter.writeReport(report, directory, filename);
+  private static void persistReport(
+      Object report, Path reportsDirectory, String directory, String filename) {
+    ReportWriter.writeReport(report, reportsDirectory, directory, filename);
   }
 
   /**
@@ -0,0 +1,129 @@
+package service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces identical requests and memoizes their results for the rest of the run.
+ *
+ * <p>The first caller for a key performs the request; concurrent callers for the same key wait for
+ * that same request instead of issuing their own, and later callers get the memoized result. Failed
+ * requests are not memoized, so a later caller tries again. The memo holds at most a fixed number
+ * of entries and evicts the least recently used one when full.
+ */
+@Slf4j
+public class SingleFlight {
+
+  private final Map<String, CompletableFuture<?>> entries;
+
+  /**
+   * Creates a single-flight group holding at most the given number of memoized results.
+   *
+   * @param maxEntries maximum number of memoized results
+   */
+  public SingleFlight(int maxEntries) {
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<?>> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  /**
+   * Gets the result for a key, running the blocking loader on the calling thread only if no other
+   * caller has loaded or is loading it.
+   *
+   * @param key the request key, typically the URL
+   * @param loader performs the request
+   * @param <T> result type
+   * @return the shared result
+   * @throws exception.SleeperApiException if the shared request failed
+   */
+  public <T> T get(String key, Supplier<T> loader) {
+    CompletableFuture<T> placeholder = new CompletableFuture<>();
+    CompletableFuture<T> existing = putIfAbsent(key, placeholder);
+    if (existing != null) {
+      log.debug("Sharing result for {}", key);
+      return HttpService.join(existing);
+    }
+
+    try {
+      T value = loader.get();
+      placeholder.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      remove(key, placeholder);
+      placeholder.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the result for a key asynchronously, starting the loader only if no other caller has
+   * loaded or is loading it.
+   *
+   * @param key the request key, typically the URL
+   * @param loader starts the request
+   * @param <T> result type
+   * @return future completing with the shared result
+   */
+  public <T> CompletableFuture<T> getAsync(String key, Supplier<CompletableFuture<T>> loader) {
+    CompletableFuture<T> placeholder = new CompletableFuture<>();
+    CompletableFuture<T> existing = putIfAbsent(key, placeholder);
+    if (existing != null) {
+      log.debug("Sharing result for {}", key);
+      return existing;
+    }
+
+    try {
+      loader
+          .get()
+          .whenComplete(
+              (value, error) -> {
+                if (error != null) {
+                  remove(key, placeholder);
+                  placeholder.completeExceptionally(error);
+                } else {
+                  placeholder.complete(value);
+                }
+              });
+    } catch (RuntimeException e) {
+      remove(key, placeholder);
+      placeholder.completeExceptionally(e);
+    }
+    return placeholder;
+  }
+
+  /**
+   * Registers a placeholder for a key unless another request already holds it.
+   *
+   * @param key the request key
+   * @param placeholder future to register
+   * @param <T> result type
+   * @return the existing future for the key, or null if the placeholder was registered
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized <T> CompletableFuture<T> putIfAbsent(
+      String key, CompletableFuture<T> placeholder) {
+    CompletableFuture<T> existing = (CompletableFuture<T>) entries.get(key);
+    if (existing == null) {
+      entries.put(key, placeholder);
+    }
+    return existing;
+  }
+
+  /**
+   * Removes a failed request so a later caller can try again.
+   *
+   * @param key the request key
+   * @param future the failed future
+   */
+  private synchronized void remove(String key, CompletableFuture<?> future) {
+    entries.remove(key, future);
+  }
+}
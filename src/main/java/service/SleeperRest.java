@@ -1,23 +1,41 @@
 package service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import exception.SleeperApiException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import model.dto.*;
+import util.JsonFormatter;
 import util.PropertiesUtil;
+import util.TeeInputStream;
 
 /**
  * REST client for interacting with the Sleeper Fantasy Football API. Returns DTOs that directly
  * represent the API response structure. For domain models, use DataHelper which maps DTOs to domain
  * objects. Uses HttpService for HTTP communication.
+ *
+ * <p>Each league endpoint also has a non-blocking {@code *Async} variant returning a {@link
+ * CompletableFuture}, so callers can compose many requests without holding a thread per request.
+ *
+ * <p>Endpoints returning parsed DTOs go through a {@link SingleFlight} keyed by URL: concurrent
+ * identical requests share one exchange, and completed results are memoized for the rest of the
+ * run, so callers must treat the returned DTOs as read-only. Raw JSON and conditional endpoints are
+ * not memoized, since they exist to persist or revalidate the cache.
  */
 @Slf4j
 public class SleeperRest {
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
   private static final String BASE_URL = PropertiesUtil.getInstance().getSleeperApiBaseUrl();
+  private static final boolean PRETTY_PRINT = PropertiesUtil.getInstance().isCachePrettyPrint();
+  private static final SingleFlight SINGLE_FLIGHT =
+      new SingleFlight(PropertiesUtil.getInstance().getMemoMaxEntries());
 
   /**
    * Fetches all NFL players as a JSON string.
@@ -38,19 +56,27 @@ public class SleeperRest {
    * @throws SleeperApiException if the API request or parsing fails
    */
   public static Map<String, PlayerResponse.PlayerDto> getNflPlayers() {
-    String url = BASE_URL + "/players/nfl";
-    String responseBody = HttpService.get(url, "Failed fetching players");
+    return getNflPlayers(CacheValidators.NONE, null).body();
+  }
 
-    try {
-      return OBJECT_MAPPER.readValue(
-          responseBody,
-          OBJECT_MAPPER
-              .getTypeFactory()
-              .constructMapType(Map.class, String.class, PlayerResponse.PlayerDto.class));
-    } catch (JsonProcessingException e) {
-      log.error("Failed to parse NFL players response", e);
-      throw new SleeperApiException("Failed to parse NFL players response", e);
-    }
+  /**
+   * Fetches all NFL players, parsing the response as it streams in. The raw response bytes can be
+   * copied to a cache file at the same time, and a cached copy can be revalidated instead of
+   * downloaded again.
+   *
+   * @param validators validators of the cached copy, or {@link CacheValidators#NONE}
+   * @param rawCopy receives the raw JSON bytes as they are read, or null for no copy
+   * @return the response, either not modified or with the parsed players
+   * @throws SleeperApiException if the API request or parsing fails
+   */
+  public static ConditionalResponse<Map<String, PlayerResponse.PlayerDto>> getNflPlayers(
+      CacheValidators validators, OutputStream rawCopy) {
+    String url = BASE_URL + "/players/nfl";
+    JavaType type =
+        OBJECT_MAPPER
+            .getTypeFactory()
+            .constructMapType(Map.class, String.class, PlayerResponse.PlayerDto.class);
+    return getParsed(url, "Failed fetching players", validators, rawCopy, type, "NFL players");
   }
 
   /**
@@ -67,9 +93,36 @@ public class SleeperRest {
     validateParameter(round, "round");
 
     String url = String.format("%s/league/%s/transactions/%s", BASE_URL, leagueId, round);
-    String responseBody = HttpService.get(url, "Failed fetching transactions");
+    return SINGLE_FLIGHT.get(
+        url, () -> getTransactions(leagueId, round, CacheValidators.NONE, null).body());
+  }
 
-    return parseList(responseBody, TransactionDto.class, "output/transactions");
+  /**
+   * Fetches transactions for a specific league and round, parsing the response as it streams in.
+   * The raw response bytes can be copied to a cache file at the same time, and a cached copy can be
+   * revalidated instead of downloaded again.
+   *
+   * @param leagueId the league identifier
+   * @param round the round/week number
+   * @param validators validators of the cached copy, or {@link CacheValidators#NONE}
+   * @param rawCopy receives the raw JSON bytes as they are read, or null for no copy
+   * @return the response, either not modified or with the parsed transactions
+   * @throws SleeperApiException if the API request or parsing fails
+   * @throws IllegalArgumentException if parameters are null or empty
+   */
+  public static ConditionalResponse<List<TransactionDto>> getTransactions(
+      String leagueId, String round, CacheValidators validators, OutputStream rawCopy) {
+    validateParameter(leagueId, "leagueId");
+    validateParameter(round, "round");
+
+    String url = String.format("%s/league/%s/transactions/%s", BASE_URL, leagueId, round);
+    return getParsed(
+        url,
+        "Failed fetching transactions",
+        validators,
+        rawCopy,
+        listType(TransactionDto.class),
+        "transactions");
   }
 
   /**
@@ -91,6 +144,24 @@ public class SleeperRest {
     return formatJson(responseBody);
   }
 
+  /**
+   * Asynchronously fetches transactions for a specific league and round as a JSON string.
+   *
+   * @param leagueId the league identifier
+   * @param round the round/week number
+   * @return future completing with the JSON string containing transactions, or exceptionally with a
+   *     SleeperApiException if the API request fails
+   * @throws IllegalArgumentException if parameters are null or empty
+   */
+  public static CompletableFuture<String> getTransactionsJsonAsync(String leagueId, String round) {
+    validateParameter(leagueId, "leagueId");
+    validateParameter(round, "round");
+
+    String url = String.format("%s/league/%s/transactions/%s", BASE_URL, leagueId, round);
+    return HttpService.getAsync(url, "Failed fetching transactions")
+        .thenApply(SleeperRest::formatJson);
+  }
+
   /**
    * Fetches league information for a specific league.
    *
@@ -103,14 +174,57 @@ public class SleeperRest {
     validateParameter(leagueId, "leagueId");
 
     String url = String.format("%s/league/%s", BASE_URL, leagueId);
-    String responseBody = HttpService.get(url, "Failed fetching league");
+    JavaType type = OBJECT_MAPPER.constructType(LeagueDto.class);
+    return SINGLE_FLIGHT.get(
+        url,
+        () ->
+            SleeperRest.<LeagueDto>getParsed(
+                    url, "Failed fetching league", CacheValidators.NONE, null, type, "league")
+                .body());
+  }
 
-    try {
-      return OBJECT_MAPPER.readValue(responseBody, LeagueDto.class);
-    } catch (JsonProcessingException e) {
-      log.error("Failed to parse league response", e);
-      throw new SleeperApiException("Failed to parse league response", e);
-    }
+  /**
+   * Fetches the current NFL state: the season and week currently being played.
+   *
+   * @return NflStateDto for the current season and week
+   * @throws SleeperApiException if the API request fails
+   */
+  public static NflStateDto getNflState() {
+    String url = String.format("%s/state/nfl", BASE_URL);
+    JavaType type = OBJECT_MAPPER.constructType(NflStateDto.class);
+    return SINGLE_FLIGHT.get(
+        url,
+        () ->
+            SleeperRest.<NflStateDto>getParsed(
+                    url, "Failed fetching NFL state", CacheValidators.NONE, null, type, "NFL state")
+                .body());
+  }
+
+  /**
+   * Asynchronously fetches league information for a specific league.
+   *
+   * @param leagueId the league identifier
+   * @return future completing with the LeagueDto, or exceptionally with a SleeperApiException if
+   *     the API request or parsing fails
+   * @throws IllegalArgumentException if leagueId is null or empty
+   */
+  public static CompletableFuture<LeagueDto> getLeagueAsync(String leagueId) {
+    validateParameter(leagueId, "leagueId");
+
+    String url = String.format("%s/league/%s", BASE_URL, leagueId);
+    return SINGLE_FLIGHT.getAsync(
+        url,
+        () ->
+            HttpService.getAsync(url, "Failed fetching league")
+                .thenApply(
+                    responseBody -> {
+                      try {
+                        return OBJECT_MAPPER.readValue(responseBody, LeagueDto.class);
+                      } catch (JsonProcessingException e) {
+                        log.error("Failed to parse league response", e);
+                        throw new SleeperApiException("Failed to parse league response", e);
+                      }
+                    }));
   }
 
   /**
@@ -125,9 +239,36 @@ public class SleeperRest {
     validateParameter(leagueId, "leagueId");
 
     String url = String.format("%s/league/%s/users", BASE_URL, leagueId);
-    String responseBody = HttpService.get(url, "Failed fetching users");
+    return SINGLE_FLIGHT.get(
+        url,
+        () ->
+            SleeperRest.<List<UserDto>>getParsed(
+                    url,
+                    "Failed fetching users",
+                    CacheValidators.NONE,
+                    null,
+                    listType(UserDto.class),
+                    "users")
+                .body());
+  }
+
+  /**
+   * Asynchronously fetches all users in a specific league.
+   *
+   * @param leagueId the league identifier
+   * @return future completing with the list of users, or exceptionally with a SleeperApiException
+   *     if the API request or parsing fails
+   * @throws IllegalArgumentException if leagueId is null or empty
+   */
+  public static CompletableFuture<List<UserDto>> getUsersAsync(String leagueId) {
+    validateParameter(leagueId, "leagueId");
 
-    return parseList(responseBody, UserDto.class, "users");
+    String url = String.format("%s/league/%s/users", BASE_URL, leagueId);
+    return SINGLE_FLIGHT.getAsync(
+        url,
+        () ->
+            HttpService.getAsync(url, "Failed fetching users")
+                .thenApply(responseBody -> parseList(responseBody, UserDto.class, "users")));
   }
 
   /**
@@ -142,9 +283,36 @@ public class SleeperRest {
     validateParameter(leagueId, "leagueId");
 
     String url = String.format("%s/league/%s/rosters", BASE_URL, leagueId);
-    String responseBody = HttpService.get(url, "Failed fetching rosters");
+    return SINGLE_FLIGHT.get(
+        url,
+        () ->
+            SleeperRest.<List<RosterDto>>getParsed(
+                    url,
+                    "Failed fetching rosters",
+                    CacheValidators.NONE,
+                    null,
+                    listType(RosterDto.class),
+                    "rosters")
+                .body());
+  }
+
+  /**
+   * Asynchronously fetches all rosters in a specific league.
+   *
+   * @param leagueId the league identifier
+   * @return future completing with the list of rosters, or exceptionally with a SleeperApiException
+   *     if the API request or parsing fails
+   * @throws IllegalArgumentException if leagueId is null or empty
+   */
+  public static CompletableFuture<List<RosterDto>> getRostersAsync(String leagueId) {
+    validateParameter(leagueId, "leagueId");
 
-    return parseList(responseBody, RosterDto.class, "rosters");
+    String url = String.format("%s/league/%s/rosters", BASE_URL, leagueId);
+    return SINGLE_FLIGHT.getAsync(
+        url,
+        () ->
+            HttpService.getAsync(url, "Failed fetching rosters")
+                .thenApply(responseBody -> parseList(responseBody, RosterDto.class, "rosters")));
   }
 
   /**
@@ -161,9 +329,36 @@ public class SleeperRest {
     validateParameter(week, "week");
 
     String url = String.format("%s/league/%s/matchups/%s", BASE_URL, leagueId, week);
-    String responseBody = HttpService.get(url, "Failed fetching matchups");
+    return SINGLE_FLIGHT.get(
+        url, () -> getMatchups(leagueId, week, CacheValidators.NONE, null).body());
+  }
+
+  /**
+   * Fetches matchups for a specific league and week, parsing the response as it streams in. The raw
+   * response bytes can be copied to a cache file at the same time, and a cached copy can be
+   * revalidated instead of downloaded again.
+   *
+   * @param leagueId the league identifier
+   * @param week the week number
+   * @param validators validators of the cached copy, or {@link CacheValidators#NONE}
+   * @param rawCopy receives the raw JSON bytes as they are read, or null for no copy
+   * @return the response, either not modified or with the parsed matchups
+   * @throws SleeperApiException if the API request or parsing fails
+   * @throws IllegalArgumentException if parameters are null or empty
+   */
+  public static ConditionalResponse<List<MatchupDto>> getMatchups(
+      String leagueId, String week, CacheValidators validators, OutputStream rawCopy) {
+    validateParameter(leagueId, "leagueId");
+    validateParameter(week, "week");
 
-    return parseList(responseBody, MatchupDto.class, "output/matchups");
+    String url = String.format("%s/league/%s/matchups/%s", BASE_URL, leagueId, week);
+    return getParsed(
+        url,
+        "Failed fetching matchups",
+        validators,
+        rawCopy,
+        listType(MatchupDto.class),
+        "matchups");
   }
 
   /**
@@ -185,6 +380,69 @@ public class SleeperRest {
     return formatJson(responseBody);
   }
 
+  /**
+   * Asynchronously fetches matchups for a specific league and week as a JSON string.
+   *
+   * @param leagueId the league identifier
+   * @param week the week number
+   * @return future completing with the JSON string containing matchups, or exceptionally with a
+   *     SleeperApiException if the API request fails
+   * @throws IllegalArgumentException if parameters are null or empty
+   */
+  public static CompletableFuture<String> getMatchupsContentAsync(String leagueId, String week) {
+    validateParameter(leagueId, "leagueId");
+    validateParameter(week, "week");
+
+    String url = String.format("%s/league/%s/matchups/%s", BASE_URL, leagueId, week);
+    return HttpService.getAsync(url, "Failed fetching matchups").thenApply(SleeperRest::formatJson);
+  }
+
+  /**
+   * Fetches a resource and parses it with Jackson directly off the response stream, optionally
+   * copying the raw bytes to an output stream while they are parsed.
+   *
+   * @param url the URL to fetch
+   * @param errorMessage the error message prefix for request failures
+   * @param validators validators of a cached copy, or {@link CacheValidators#NONE}
+   * @param rawCopy receives the raw JSON bytes as they are read, or null for no copy
+   * @param type the type to parse into
+   * @param typeName the type name for error messages
+   * @param <T> the type parameter
+   * @return the response, either not modified or with the parsed body
+   * @throws SleeperApiException if the request or parsing fails
+   */
+  private static <T> ConditionalResponse<T> getParsed(
+      String url,
+      String errorMessage,
+      CacheValidators validators,
+      OutputStream rawCopy,
+      JavaType type,
+      String typeName) {
+    return HttpService.getConditional(
+        url,
+        errorMessage,
+        validators,
+        body -> {
+          InputStream in = rawCopy != null ? new TeeInputStream(body, rawCopy) : body;
+          try {
+            return OBJECT_MAPPER.readValue(in, type);
+          } catch (JsonProcessingException e) {
+            log.error("Failed to parse {} response", typeName, e);
+            throw new SleeperApiException("Failed to parse " + typeName + " response", e);
+          }
+        });
+  }
+
+  /**
+   * Builds the Jackson type for a list of the given element class.
+   *
+   * @param clazz the element class
+   * @return the list type
+   */
+  private static JavaType listType(Class<?> clazz) {
+    return OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, clazz);
+  }
+
   /**
    * Parses a JSON array string into a List of objects.
    *
@@ -206,17 +464,20 @@ public class SleeperRest {
   }
 
   /**
-   * Formats JSON string with pretty printing.
+   * Returns JSON exactly as received, or pretty-printed when the {@code sleeper.cache.pretty.print}
+   * debug option is enabled.
    *
    * @param json the JSON string to format
-   * @return formatted JSON string
-   * @throws SleeperApiException if formatting fails
+   * @return the JSON string, formatted only in debug mode
    */
   private static String formatJson(String json) {
+    if (!PRETTY_PRINT) {
+      return json;
+    }
+
     try {
-      Object jsonObject = OBJECT_MAPPER.readValue(json, Object.class);
-      return OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(jsonObject);
-    } catch (JsonProcessingException e) {
+      return JsonFormatter.prettyPrint(json);
+    } catch (IOException e) {
       log.warn("Failed to format JSON, returning original", e);
       return json;
     }
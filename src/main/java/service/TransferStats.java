@@ -0,0 +1,28 @@
+package service;
+
+/**
+ * Byte counts for HTTP response bodies, as received over the wire and after decompression.
+ *
+ * @param requests number of response bodies counted
+ * @param wireBytes bytes received over the wire, possibly compressed
+ * @param decodedBytes bytes after decompression
+ */
+public record TransferStats(long requests, long wireBytes, long decodedBytes) {
+
+  /**
+   * Gets the share of bandwidth saved by compression.
+   *
+   * @return percentage of decoded bytes that did not have to be transferred, 0 if nothing was
+   *     decoded
+   */
+  public double getSavedPercent() {
+    return decodedBytes == 0 ? 0 : 100.0 * (decodedBytes - wireBytes) / decodedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d responses, %d bytes received, %d bytes decoded (%.1f%% saved)",
+        requests, wireBytes, decodedBytes, getSavedPercent());
+  }
+}
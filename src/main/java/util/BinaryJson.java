@@ -0,0 +1,261 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility class for a compact binary encoding of JSON used by the {@code sleeper_data} cache.
+ *
+ * <p>The encoding is a stream of tagged JSON tokens. Field names and short string values are
+ * written once and referenced by index afterwards, integers are variable-length and floating-point
+ * numbers take eight bytes, so a cached payload is smaller than its JSON text and is read without
+ * tokenizing whitespace, quotes or number text. Any JSON document round-trips, apart from
+ * insignificant whitespace and the textual form of numbers.
+ */
+public class BinaryJson {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  static final byte[] MAGIC = {'S', 'L', 'B', '1'};
+
+  // Largest string value shared by reference, and the size of each reference table
+  private static final int MAX_SHARED_LENGTH = 64;
+  static final int MAX_SHARED_ENTRIES = 4096;
+
+  static final int START_OBJECT = 1;
+  static final int END_OBJECT = 2;
+  static final int START_ARRAY = 3;
+  static final int END_ARRAY = 4;
+  static final int NEW_NAME = 5;
+  static final int NAME_REF = 6;
+  static final int SHARED_STRING = 7;
+  static final int STRING_REF = 8;
+  static final int STRING = 9;
+  static final int INTEGER = 10;
+  static final int BIG_INTEGER = 11;
+  static final int DOUBLE = 12;
+  static final int BIG_DECIMAL = 13;
+  static final int TRUE = 14;
+  static final int FALSE = 15;
+  static final int NULL = 16;
+
+  /**
+   * Encodes a JSON document. Neither stream is closed.
+   *
+   * @param json the JSON to encode
+   * @param out receives the binary encoding
+   * @throws IOException if the input is not valid JSON or cannot be read or written
+   */
+  public static void encode(InputStream json, OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.write(MAGIC);
+    Map<String, Integer> names = new HashMap<>();
+    Map<String, Integer> strings = new HashMap<>();
+
+    try (JsonParser parser =
+        JSON_FACTORY.createParser(json).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        switch (token) {
+          case START_OBJECT -> data.write(START_OBJECT);
+          case END_OBJECT -> data.write(END_OBJECT);
+          case START_ARRAY -> data.write(START_ARRAY);
+          case END_ARRAY -> data.write(END_ARRAY);
+          case FIELD_NAME -> writeShared(data, parser.currentName(), names, NEW_NAME, NAME_REF);
+          case VALUE_STRING -> writeString(data, parser.getText(), strings);
+          case VALUE_NUMBER_INT -> writeInteger(data, parser);
+          case VALUE_NUMBER_FLOAT -> writeFloat(data, parser);
+          case VALUE_TRUE -> data.write(TRUE);
+          case VALUE_FALSE -> data.write(FALSE);
+          case VALUE_NULL -> data.write(NULL);
+          default -> throw new IOException("Unsupported JSON token " + token);
+        }
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * Creates a streaming parser over an encoded document, for reading it with an {@code
+   * ObjectMapper}. The stream is closed with the parser.
+   *
+   * @param in the binary encoding
+   * @param codec the object codec used to bind the parsed tokens
+   * @return the parser
+   */
+  public static JsonParser createParser(InputStream in, ObjectCodec codec) {
+    return new BinaryJsonParser(in, codec);
+  }
+
+  /**
+   * Decodes a document back to JSON text. Neither stream is closed.
+   *
+   * @param in the binary encoding
+   * @param json receives the JSON
+   * @param prettyPrint whether to indent the JSON
+   * @throws IOException if the input is not a valid encoding or cannot be read or written
+   */
+  public static void toJson(InputStream in, OutputStream json, boolean prettyPrint)
+      throws IOException {
+    try (JsonParser parser =
+            new BinaryJsonParser(in, null).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        JsonGenerator generator =
+            JSON_FACTORY.createGenerator(json).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+      if (prettyPrint) {
+        generator.useDefaultPrettyPrinter();
+      }
+      while (parser.nextToken() != null) {
+        generator.copyCurrentEvent(parser);
+      }
+    }
+  }
+
+  /**
+   * Writes a string value, sharing short values by reference.
+   *
+   * @param data the output
+   * @param value the string value
+   * @param strings indexes of the shared values written so far
+   * @throws IOException if the value cannot be written
+   */
+  private static void writeString(DataOutputStream data, String value, Map<String, Integer> strings)
+      throws IOException {
+    if (value.length() > MAX_SHARED_LENGTH) {
+      data.write(STRING);
+      writeText(data, value);
+    } else {
+      writeShared(data, value, strings, SHARED_STRING, STRING_REF);
+    }
+  }
+
+  /**
+   * Writes a string once and as a reference to its first occurrence afterwards.
+   *
+   * @param data the output
+   * @param value the string
+   * @param table indexes of the strings written so far
+   * @param newTag tag of a first occurrence
+   * @param refTag tag of a reference
+   * @throws IOException if the string cannot be written
+   */
+  private static void writeShared(
+      DataOutputStream data, String value, Map<String, Integer> table, int newTag, int refTag)
+      throws IOException {
+    Integer index = table.get(value);
+    if (index != null) {
+      data.write(refTag);
+      writeVarLong(data, index);
+      return;
+    }
+    if (table.size() < MAX_SHARED_ENTRIES) {
+      table.put(value, table.size());
+    }
+    data.write(newTag);
+    writeText(data, value);
+  }
+
+  /**
+   * Writes an integer value.
+   *
+   * @param data the output
+   * @param parser the parser positioned on the value
+   * @throws IOException if the value cannot be read or written
+   */
+  private static void writeInteger(DataOutputStream data, JsonParser parser) throws IOException {
+    if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+      data.write(BIG_INTEGER);
+      writeText(data, parser.getText());
+    } else {
+      data.write(INTEGER);
+      writeVarLong(data, zigZagEncode(parser.getLongValue()));
+    }
+  }
+
+  /**
+   * Writes a floating-point value, as a double unless that would lose precision.
+   *
+   * @param data the output
+   * @param parser the parser positioned on the value
+   * @throws IOException if the value cannot be read or written
+   */
+  private static void writeFloat(DataOutputStream data, JsonParser parser) throws IOException {
+    double value = parser.getDoubleValue();
+    if (Double.isFinite(value) && new BigDecimal(parser.getText()).compareTo(exact(value)) == 0) {
+      data.write(DOUBLE);
+      data.writeDouble(value);
+    } else {
+      data.write(BIG_DECIMAL);
+      writeText(data, parser.getText());
+    }
+  }
+
+  /**
+   * Gets the decimal value a double prints as, which is the value it was parsed from when the
+   * conversion was exact.
+   *
+   * @param value the double
+   * @return its shortest decimal representation
+   */
+  private static BigDecimal exact(double value) {
+    return new BigDecimal(Double.toString(value));
+  }
+
+  /**
+   * Writes a length-prefixed UTF-8 string.
+   *
+   * @param data the output
+   * @param value the string
+   * @throws IOException if the string cannot be written
+   */
+  private static void writeText(DataOutputStream data, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(data, bytes.length);
+    data.write(bytes);
+  }
+
+  /**
+   * Writes an unsigned variable-length integer, seven bits per byte.
+   *
+   * @param data the output
+   * @param value the value
+   * @throws IOException if the value cannot be written
+   */
+  private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      data.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    data.write((int) value);
+  }
+
+  /**
+   * Maps a signed integer to an unsigned one so small negative numbers stay short.
+   *
+   * @param value the signed value
+   * @return the zigzag-encoded value
+   */
+  private static long zigZagEncode(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /**
+   * Reverses {@link #zigZagEncode}.
+   *
+   * @param value the zigzag-encoded value
+   * @return the signed value
+   */
+  static long zigZagDecode(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
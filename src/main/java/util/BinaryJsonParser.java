@@ -0,0 +1,531 @@
+package util;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for the {@link BinaryJson} encoding. Tokens are decoded straight from the input
+ * as they are requested, so an {@code ObjectMapper} binds a cached payload without any intermediate
+ * copy.
+ */
+class BinaryJsonParser extends ParserMinimalBase {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private final List<String> names = new ArrayList<>();
+  private final List<String> strings = new ArrayList<>();
+  private int position;
+  private int limit;
+  private boolean headerRead;
+  private boolean closed;
+
+  private ObjectCodec codec;
+  private JsonReadContext context = JsonReadContext.createRootContext(null);
+
+  // Value of the current token
+  private String text;
+  private NumberType numberType;
+  private long longValue;
+  private double doubleValue;
+  private BigInteger bigIntegerValue;
+  private BigDecimal decimalValue;
+
+  /**
+   * Creates a parser over an encoded document.
+   *
+   * @param in the binary encoding, closed with the parser
+   * @param codec the object codec used to bind the parsed tokens
+   */
+  BinaryJsonParser(InputStream in, ObjectCodec codec) {
+    this.in = in;
+    this.codec = codec;
+  }
+
+  @Override
+  public JsonToken nextToken() throws IOException {
+    if (closed) {
+      return null;
+    }
+    if (!headerRead) {
+      readHeader();
+    }
+
+    int tag = read();
+    if (tag == -1) {
+      _handleEOF();
+      close();
+      return _currToken = null;
+    }
+
+    text = null;
+    switch (tag) {
+      case BinaryJson.START_OBJECT -> {
+        context = context.createChildObjectContext(-1, -1);
+        return _currToken = JsonToken.START_OBJECT;
+      }
+      case BinaryJson.END_OBJECT -> {
+        context = context.clearAndGetParent();
+        return _currToken = JsonToken.END_OBJECT;
+      }
+      case BinaryJson.START_ARRAY -> {
+        context = context.createChildArrayContext(-1, -1);
+        return _currToken = JsonToken.START_ARRAY;
+      }
+      case BinaryJson.END_ARRAY -> {
+        context = context.clearAndGetParent();
+        return _currToken = JsonToken.END_ARRAY;
+      }
+      case BinaryJson.NEW_NAME -> {
+        context.setCurrentName(share(readText(), names));
+        return _currToken = JsonToken.FIELD_NAME;
+      }
+      case BinaryJson.NAME_REF -> {
+        context.setCurrentName(lookup(names, readVarLong()));
+        return _currToken = JsonToken.FIELD_NAME;
+      }
+      case BinaryJson.SHARED_STRING -> {
+        text = share(readText(), strings);
+        return _currToken = JsonToken.VALUE_STRING;
+      }
+      case BinaryJson.STRING_REF -> {
+        text = lookup(strings, readVarLong());
+        return _currToken = JsonToken.VALUE_STRING;
+      }
+      case BinaryJson.STRING -> {
+        text = readText();
+        return _currToken = JsonToken.VALUE_STRING;
+      }
+      case BinaryJson.INTEGER -> {
+        longValue = BinaryJson.zigZagDecode(readVarLong());
+        numberType = longValue == (int) longValue ? NumberType.INT : NumberType.LONG;
+        return _currToken = JsonToken.VALUE_NUMBER_INT;
+      }
+      case BinaryJson.BIG_INTEGER -> {
+        bigIntegerValue = new BigInteger(readText());
+        numberType = NumberType.BIG_INTEGER;
+        return _currToken = JsonToken.VALUE_NUMBER_INT;
+      }
+      case BinaryJson.DOUBLE -> {
+        doubleValue = Double.longBitsToDouble(readLong());
+        numberType = NumberType.DOUBLE;
+        return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+      }
+      case BinaryJson.BIG_DECIMAL -> {
+        decimalValue = new BigDecimal(readText());
+        numberType = NumberType.BIG_DECIMAL;
+        return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+      }
+      case BinaryJson.TRUE -> {
+        return _currToken = JsonToken.VALUE_TRUE;
+      }
+      case BinaryJson.FALSE -> {
+        return _currToken = JsonToken.VALUE_FALSE;
+      }
+      case BinaryJson.NULL -> {
+        return _currToken = JsonToken.VALUE_NULL;
+      }
+      default -> throw new JsonParseException(this, "Invalid binary cache tag " + tag);
+    }
+  }
+
+  @Override
+  protected void _handleEOF() throws JsonParseException {
+    if (!context.inRoot()) {
+      throw new JsonParseException(this, "Truncated binary cache file");
+    }
+  }
+
+  @Override
+  public String currentName() {
+    if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+      return context.getParent().getCurrentName();
+    }
+    return context.getCurrentName();
+  }
+
+  // Still abstract in Jackson 2.17; the non-deprecated accessors above and below are the real ones
+  @Deprecated
+  @Override
+  public String getCurrentName() {
+    return currentName();
+  }
+
+  @Override
+  public void overrideCurrentName(String name) {
+    JsonReadContext target = context;
+    if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+      target = target.getParent();
+    }
+    try {
+      target.setCurrentName(name);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      if (isEnabled(Feature.AUTO_CLOSE_SOURCE)) {
+        in.close();
+      }
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public JsonStreamContext getParsingContext() {
+    return context;
+  }
+
+  @Override
+  public String getText() {
+    if (_currToken == null) {
+      return null;
+    }
+    return switch (_currToken) {
+      case VALUE_STRING -> text;
+      case FIELD_NAME -> context.getCurrentName();
+      case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> getNumberValue().toString();
+      default -> _currToken.asString();
+    };
+  }
+
+  @Override
+  public char[] getTextCharacters() {
+    String value = getText();
+    return value == null ? null : value.toCharArray();
+  }
+
+  @Override
+  public boolean hasTextCharacters() {
+    return false;
+  }
+
+  @Override
+  public int getTextLength() {
+    String value = getText();
+    return value == null ? 0 : value.length();
+  }
+
+  @Override
+  public int getTextOffset() {
+    return 0;
+  }
+
+  @Override
+  public byte[] getBinaryValue(Base64Variant variant) throws IOException {
+    throw new JsonParseException(this, "Binary cache files hold no binary values");
+  }
+
+  @Override
+  public ObjectCodec getCodec() {
+    return codec;
+  }
+
+  @Override
+  public void setCodec(ObjectCodec codec) {
+    this.codec = codec;
+  }
+
+  @Override
+  public Version version() {
+    return Version.unknownVersion();
+  }
+
+  @Override
+  public JsonLocation currentLocation() {
+    return JsonLocation.NA;
+  }
+
+  @Override
+  public JsonLocation currentTokenLocation() {
+    return JsonLocation.NA;
+  }
+
+  @Deprecated
+  @Override
+  public JsonLocation getCurrentLocation() {
+    return currentLocation();
+  }
+
+  @Deprecated
+  @Override
+  public JsonLocation getTokenLocation() {
+    return currentTokenLocation();
+  }
+
+  @Override
+  public Number getNumberValue() {
+    return switch (numberType) {
+      case INT -> (int) longValue;
+      case LONG -> longValue;
+      case BIG_INTEGER -> bigIntegerValue;
+      case DOUBLE -> doubleValue;
+      default -> decimalValue;
+    };
+  }
+
+  @Override
+  public NumberType getNumberType() {
+    return _currToken == JsonToken.VALUE_NUMBER_INT || _currToken == JsonToken.VALUE_NUMBER_FLOAT
+        ? numberType
+        : null;
+  }
+
+  @Override
+  public int getIntValue() throws IOException {
+    long value = getLongValue();
+    if (value != (int) value) {
+      throw new InputCoercionException(
+          this, "Numeric value " + value + " out of range of int", _currToken, Integer.TYPE);
+    }
+    return (int) value;
+  }
+
+  @Override
+  public long getLongValue() throws IOException {
+    return switch (numberType) {
+      case INT, LONG -> longValue;
+      case BIG_INTEGER -> {
+        if (bigIntegerValue.bitLength() >= Long.SIZE) {
+          throw new InputCoercionException(
+              this,
+              "Numeric value " + bigIntegerValue + " out of range of long",
+              _currToken,
+              Long.TYPE);
+        }
+        yield bigIntegerValue.longValue();
+      }
+      case DOUBLE -> (long) doubleValue;
+      default -> decimalValue.longValue();
+    };
+  }
+
+  @Override
+  public BigInteger getBigIntegerValue() {
+    return switch (numberType) {
+      case INT, LONG -> BigInteger.valueOf(longValue);
+      case BIG_INTEGER -> bigIntegerValue;
+      case DOUBLE -> BigDecimal.valueOf(doubleValue).toBigInteger();
+      default -> decimalValue.toBigInteger();
+    };
+  }
+
+  @Override
+  public float getFloatValue() {
+    return (float) getDoubleValue();
+  }
+
+  @Override
+  public double getDoubleValue() {
+    return switch (numberType) {
+      case INT, LONG -> longValue;
+      case BIG_INTEGER -> bigIntegerValue.doubleValue();
+      case DOUBLE -> doubleValue;
+      default -> decimalValue.doubleValue();
+    };
+  }
+
+  @Override
+  public BigDecimal getDecimalValue() {
+    return switch (numberType) {
+      case INT, LONG -> BigDecimal.valueOf(longValue);
+      case BIG_INTEGER -> new BigDecimal(bigIntegerValue);
+      case DOUBLE -> BigDecimal.valueOf(doubleValue);
+      default -> decimalValue;
+    };
+  }
+
+  /**
+   * Checks the magic bytes at the start of the encoding.
+   *
+   * @throws IOException if the input is not a binary cache file
+   */
+  private void readHeader() throws IOException {
+    headerRead = true;
+    for (byte expected : BinaryJson.MAGIC) {
+      if (read() != expected) {
+        throw new JsonParseException(this, "Not a binary cache file");
+      }
+    }
+  }
+
+  /**
+   * Records a first occurrence of a shared string, mirroring how the encoder numbers them.
+   *
+   * @param value the string read
+   * @param table the shared strings read so far
+   * @return the string
+   */
+  private static String share(String value, List<String> table) {
+    if (table.size() < BinaryJson.MAX_SHARED_ENTRIES) {
+      table.add(value);
+    }
+    return value;
+  }
+
+  /**
+   * Looks up a shared string by reference.
+   *
+   * @param table the shared strings read so far
+   * @param index the reference
+   * @return the string
+   * @throws JsonParseException if the reference is invalid
+   */
+  private String lookup(List<String> table, long index) throws JsonParseException {
+    if (index < 0 || index >= table.size()) {
+      throw new JsonParseException(this, "Invalid binary cache reference " + index);
+    }
+    return table.get((int) index);
+  }
+
+  /**
+   * Reads a length-prefixed UTF-8 string, decoding it in place when it is buffered.
+   *
+   * @return the string
+   * @throws IOException if the string cannot be read
+   */
+  private String readText() throws IOException {
+    long length = readVarLong();
+    if (length < 0 || length > Integer.MAX_VALUE) {
+      throw new JsonParseException(this, "Invalid binary cache string length " + length);
+    }
+    int size = (int) length;
+    if (size <= BUFFER_SIZE && ensure(size)) {
+      String value = new String(buffer, position, size, StandardCharsets.UTF_8);
+      position += size;
+      return value;
+    }
+
+    byte[] bytes = new byte[size];
+    int copied = 0;
+    while (copied < size) {
+      if (position == limit && !fill()) {
+        throw new JsonParseException(this, "Truncated binary cache file");
+      }
+      int chunk = Math.min(size - copied, limit - position);
+      System.arraycopy(buffer, position, bytes, copied, chunk);
+      position += chunk;
+      copied += chunk;
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a big-endian eight-byte integer.
+   *
+   * @return the value
+   * @throws IOException if the value cannot be read
+   */
+  private long readLong() throws IOException {
+    if (!ensure(Long.BYTES)) {
+      throw new JsonParseException(this, "Truncated binary cache file");
+    }
+    long value = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      value = (value << 8) | (buffer[position++] & 0xFF);
+    }
+    return value;
+  }
+
+  /**
+   * Reads an unsigned variable-length integer.
+   *
+   * @return the value
+   * @throws IOException if the value cannot be read
+   */
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = read();
+      if (b == -1) {
+        throw new JsonParseException(this, "Truncated binary cache file");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new JsonParseException(this, "Invalid binary cache integer");
+  }
+
+  /**
+   * Reads one byte.
+   *
+   * @return the byte, or -1 at the end of the input
+   * @throws IOException if the input cannot be read
+   */
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Makes sure the given number of bytes is buffered.
+   *
+   * @param count the number of bytes, at most the buffer size
+   * @return false if the input ends first
+   * @throws IOException if the input cannot be read
+   */
+  private boolean ensure(int count) throws IOException {
+    if (limit - position >= count) {
+      return true;
+    }
+    System.arraycopy(buffer, position, buffer, 0, limit - position);
+    limit -= position;
+    position = 0;
+    while (limit < count) {
+      int n = in.read(buffer, limit, buffer.length - limit);
+      if (n == -1) {
+        return false;
+      }
+      limit += n;
+    }
+    return true;
+  }
+
+  /**
+   * Refills the empty buffer.
+   *
+   * @return false at the end of the input
+   * @throws IOException if the input cannot be read
+   */
+  private boolean fill() throws IOException {
+    position = 0;
+    limit = 0;
+    int n;
+    do {
+      n = in.read(buffer, 0, buffer.length);
+    } while (n == 0);
+    if (n == -1) {
+      return false;
+    }
+    limit = n;
+    return true;
+  }
+}
@@ -0,0 +1,230 @@
+package util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * How a cached payload is stored on disk: its {@link CacheFormat} and whether it is gzip-compressed
+ * ({@code sleeper.cache.compress}). Compressed files are read and written through streaming gzip
+ * wired directly to the format's parser and encoder, so a payload is never held in memory as a
+ * whole.
+ *
+ * @param format the payload format
+ * @param compressed whether the file is gzip-compressed
+ */
+public record CacheEncoding(CacheFormat format, boolean compressed) {
+
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Gets the encoding selected by {@code sleeper.cache.format} and {@code sleeper.cache.compress}.
+   *
+   * @return the configured encoding
+   */
+  public static CacheEncoding configured() {
+    PropertiesUtil props = PropertiesUtil.getInstance();
+    return new CacheEncoding(props.getCacheFormat(), props.isCacheCompress());
+  }
+
+  /**
+   * Gets every supported encoding, for finding payloads cached with other settings.
+   *
+   * @return all encodings
+   */
+  public static List<CacheEncoding> all() {
+    List<CacheEncoding> encodings = new ArrayList<>();
+    for (CacheFormat format : CacheFormat.values()) {
+      encodings.add(new CacheEncoding(format, false));
+      encodings.add(new CacheEncoding(format, true));
+    }
+    return encodings;
+  }
+
+  /**
+   * Gets the cache file of a resource in this encoding.
+   *
+   * @param basePath path of the resource without extension, e.g. {@code sleeper_data/nfl_players}
+   * @return the cache file, e.g. {@code sleeper_data/nfl_players.json.gz}
+   */
+  public Path resolve(Path basePath) {
+    String extension = format.getExtension() + (compressed ? GZIP_EXTENSION : "");
+    return basePath.resolveSibling(basePath.getFileName() + extension);
+  }
+
+  /**
+   * Checks whether payloads fetched as JSON can be stored exactly as received.
+   *
+   * @param prettyPrint whether JSON is pretty-printed
+   * @return true if this is uncompressed JSON that is not pretty-printed
+   */
+  public boolean storesRawJson(boolean prettyPrint) {
+    return format == CacheFormat.JSON && !compressed && !prettyPrint;
+  }
+
+  /**
+   * Opens a cache file for reading, decompressing it if needed.
+   *
+   * @param path the cache file
+   * @return the payload stream
+   * @throws IOException if the file cannot be opened
+   */
+  public InputStream newInputStream(Path path) throws IOException {
+    InputStream in = Files.newInputStream(path);
+    try {
+      return compressed
+          ? new GZIPInputStream(in, BUFFER_SIZE)
+          : new BufferedInputStream(in, BUFFER_SIZE);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a payload held in memory for reading, decompressing it if needed.
+   *
+   * @param payload the stored payload
+   * @return the payload stream
+   * @throws IOException if the payload is not valid gzip
+   */
+  public InputStream newInputStream(byte[] payload) throws IOException {
+    InputStream in = new ByteArrayInputStream(payload);
+    return compressed ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+  }
+
+  /**
+   * Opens a cache file for writing, compressing it if needed.
+   *
+   * @param path the cache file
+   * @return the payload stream; it must be closed to complete the file
+   * @throws IOException if the file cannot be opened
+   */
+  public OutputStream newOutputStream(Path path) throws IOException {
+    OutputStream out = FileHelper.newOutputStream(path);
+    return compressed ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+  }
+
+  /**
+   * Opens an uncompressed cache file for reading through a read-only memory mapping, so the parser
+   * reads straight from the page cache without a read call per buffer or a heap copy of the file.
+   * Compressed files are streamed, since inflating copies the data anyway. The mapping is released
+   * once the stream is garbage collected.
+   *
+   * @param path the cache file
+   * @return the payload stream
+   * @throws IOException if the file cannot be opened or mapped
+   */
+  public InputStream newMappedInputStream(Path path) throws IOException {
+    if (compressed) {
+      return newInputStream(path);
+    }
+
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        return newInputStream(path);
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    return new ByteBufferBackedInputStream(mapped);
+  }
+
+  /**
+   * Parses a cache file in this encoding, memory-mapping it unless it is compressed.
+   *
+   * @param path the cache file
+   * @param mapper the mapper binding the payload
+   * @param type the type to parse into
+   * @param <T> the parsed type
+   * @return the parsed payload
+   * @throws IOException if the file cannot be read or parsed
+   */
+  public <T> T read(Path path, ObjectMapper mapper, JavaType type) throws IOException {
+    return format.read(newMappedInputStream(path), mapper, type);
+  }
+
+  /**
+   * Parses a payload in this encoding held in memory.
+   *
+   * @param payload the stored payload
+   * @param mapper the mapper binding the payload
+   * @param type the type to parse into
+   * @param <T> the parsed type
+   * @return the parsed payload
+   * @throws IOException if the payload cannot be parsed
+   */
+  public <T> T read(byte[] payload, ObjectMapper mapper, JavaType type) throws IOException {
+    return format.read(newInputStream(payload), mapper, type);
+  }
+
+  /**
+   * Writes a JSON payload to a cache file in this encoding.
+   *
+   * @param json the JSON payload; not closed
+   * @param path the cache file
+   * @param prettyPrint whether JSON is pretty-printed
+   * @throws IOException if the payload is not valid JSON or the file cannot be written
+   */
+  public void write(InputStream json, Path path, boolean prettyPrint) throws IOException {
+    try (OutputStream out = newOutputStream(path)) {
+      format.fromJson(json, out, prettyPrint);
+    }
+  }
+
+  /**
+   * Encodes a JSON payload in this encoding in memory.
+   *
+   * @param json the JSON payload; not closed
+   * @param prettyPrint whether JSON is pretty-printed
+   * @return the stored form of the payload
+   * @throws IOException if the payload is not valid JSON or cannot be read
+   */
+  public byte[] encode(InputStream json, boolean prettyPrint) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = compressed ? new GZIPOutputStream(bytes, BUFFER_SIZE) : bytes) {
+      format.fromJson(json, out, prettyPrint);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Rewrites a cache file stored in another encoding in this one.
+   *
+   * @param source the cache file
+   * @param sourceEncoding its encoding
+   * @param target the file to write
+   * @param prettyPrint whether JSON is pretty-printed
+   * @throws IOException if the file cannot be read, converted or written
+   */
+  public void convert(Path source, CacheEncoding sourceEncoding, Path target, boolean prettyPrint)
+      throws IOException {
+    try (InputStream in = sourceEncoding.newInputStream(source);
+        OutputStream out = newOutputStream(target)) {
+      if (sourceEncoding.format() == format && (format != CacheFormat.JSON || !prettyPrint)) {
+        in.transferTo(out);
+      } else if (sourceEncoding.format() == CacheFormat.JSON) {
+        format.fromJson(in, out, prettyPrint);
+      } else {
+        // Only JSON is left as a target
+        sourceEncoding.format().toJson(in, out, prettyPrint);
+      }
+    }
+  }
+}
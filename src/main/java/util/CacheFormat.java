@@ -0,0 +1,129 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Encodings of the payloads cached in {@code sleeper_data}, selected with {@code
+ * sleeper.cache.format}. Payloads are fetched as JSON and converted to the configured format before
+ * they are stored.
+ */
+public enum CacheFormat {
+  /** JSON exactly as received, or pretty-printed with {@code sleeper.cache.pretty.print}. */
+  JSON(".json"),
+  /** The compact {@link BinaryJson} encoding. */
+  BINARY(".bin");
+
+  private final String extension;
+
+  CacheFormat(String extension) {
+    this.extension = extension;
+  }
+
+  /**
+   * Gets a format by its property value.
+   *
+   * @param name the format name, case-insensitive
+   * @return the format
+   * @throws IllegalArgumentException if there is no such format
+   */
+  public static CacheFormat fromName(String name) {
+    for (CacheFormat format : values()) {
+      if (format.name().equalsIgnoreCase(name.trim())) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Unknown cache format '" + name + "'");
+  }
+
+  /**
+   * Gets the file extension of the format.
+   *
+   * @return the extension including the dot, e.g. ".bin"
+   */
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * Gets the cache file of a resource in this format.
+   *
+   * @param basePath path of the resource without extension, e.g. {@code sleeper_data/nfl_players}
+   * @return the cache file
+   */
+  public Path resolve(Path basePath) {
+    return basePath.resolveSibling(basePath.getFileName() + extension);
+  }
+
+  /**
+   * Stores a JSON payload in this format. Neither stream is closed.
+   *
+   * @param json the JSON payload
+   * @param out receives the stored form
+   * @param prettyPrint whether JSON should be pretty-printed rather than copied as is
+   * @throws IOException if the payload is not valid JSON or cannot be read or written
+   */
+  public void fromJson(InputStream json, OutputStream out, boolean prettyPrint) throws IOException {
+    switch (this) {
+      case JSON -> {
+        if (prettyPrint) {
+          JsonFormatter.prettyPrint(json, out);
+        } else {
+          json.transferTo(out);
+        }
+      }
+      case BINARY -> BinaryJson.encode(json, out);
+    }
+  }
+
+  /**
+   * Converts a payload stored in this format back to JSON. Neither stream is closed.
+   *
+   * @param in the stored payload
+   * @param json receives the JSON
+   * @param prettyPrint whether to pretty-print the JSON
+   * @throws IOException if the payload is invalid or cannot be read or written
+   */
+  public void toJson(InputStream in, OutputStream json, boolean prettyPrint) throws IOException {
+    switch (this) {
+      case JSON -> {
+        if (prettyPrint) {
+          JsonFormatter.prettyPrint(in, json);
+        } else {
+          in.transferTo(json);
+        }
+      }
+      case BINARY -> BinaryJson.toJson(in, json, prettyPrint);
+    }
+  }
+
+  /**
+   * Parses a payload stored in this format. The stream is closed.
+   *
+   * @param in the stored payload
+   * @param mapper the mapper binding the payload
+   * @param type the type to parse into
+   * @param <T> the parsed type
+   * @return the parsed payload
+   * @throws IOException if the payload is invalid or cannot be read
+   */
+  public <T> T read(InputStream in, ObjectMapper mapper, JavaType type) throws IOException {
+    return switch (this) {
+      case JSON -> {
+        try (in) {
+          yield mapper.readValue(in, type);
+        }
+      }
+      case BINARY -> {
+        try (JsonParser parser = BinaryJson.createParser(in, mapper)) {
+          yield mapper.readValue(parser, type);
+        }
+      }
+    };
+  }
+}
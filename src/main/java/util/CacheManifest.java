@@ -0,0 +1,197 @@
+package util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records what is known about each whole-file resource in the cache (such as the NFL players): when
+ * it was fetched, the size and checksum of its cache file and how many records it holds. The
+ * manifest is a small JSON file read once, so freshness is decided and truncated or overwritten
+ * cache files are detected without opening them. League rounds keep the same metadata in their
+ * {@link SegmentStore} index.
+ *
+ * <p>Several processes may share the cache, so every change is made under a lock file and merged
+ * into the manifest as it is on disk at that moment.
+ */
+@Slf4j
+public class CacheManifest {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final Path path;
+  private Map<String, Entry> entries;
+
+  /**
+   * Creates a manifest backed by the given file, which is read when first needed.
+   *
+   * @param path the file holding the manifest
+   */
+  public CacheManifest(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Gets the entry of a resource.
+   *
+   * @param key the resource key, e.g. "nfl_players"
+   * @return the entry, or null if the resource is not recorded
+   */
+  public synchronized Entry get(String key) {
+    return load().get(key);
+  }
+
+  /**
+   * Records a resource and saves the manifest.
+   *
+   * @param key the resource key
+   * @param entry what is known about the resource
+   */
+  public synchronized void put(String key, Entry entry) {
+    update(current -> current.put(key, entry));
+  }
+
+  /**
+   * Marks a resource as fresh after the API confirmed it is unchanged, and saves the manifest.
+   *
+   * @param key the resource key
+   */
+  public synchronized void touch(String key) {
+    update(
+        current -> {
+          Entry entry = current.get(key);
+          if (entry != null) {
+            current.put(
+                key,
+                new Entry(
+                    entry.file(),
+                    System.currentTimeMillis(),
+                    entry.size(),
+                    entry.checksum(),
+                    entry.records()));
+          }
+        });
+  }
+
+  /**
+   * Changes the manifest while holding its lock file. The manifest is read again first, so entries
+   * recorded in the meantime by other processes sharing the cache are kept rather than overwritten.
+   *
+   * @param change the change to the entries
+   */
+  private void update(Consumer<Map<String, Entry>> change) {
+    Path lockPath = path.resolveSibling(path.getFileName() + ".lock");
+    try {
+      FileHelper.withLock(
+          lockPath,
+          () -> {
+            entries = null;
+            change.accept(load());
+            save();
+            return null;
+          });
+    } catch (IOException e) {
+      log.warn("Could not lock cache manifest {}: {}", path, e.getMessage());
+    }
+  }
+
+  /**
+   * Checks whether a cache file is the one recorded for a resource, comparing its name and size.
+   * Resources that are not recorded yet are assumed to be intact.
+   *
+   * @param key the resource key
+   * @param filePath the cache file
+   * @return false if the file differs from the recorded one
+   */
+  public synchronized boolean matches(String key, Path filePath) {
+    Entry entry = load().get(key);
+    if (entry == null || !entry.file().equals(filePath.getFileName().toString())) {
+      return true;
+    }
+    try {
+      return Files.size(filePath) == entry.size();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Writes the manifest, replacing the previous one atomically. Failures are logged, since the
+   * manifest is rebuilt as resources are read and fetched.
+   */
+  private void save() {
+    Path partPath = null;
+    try {
+      partPath = FileHelper.temporaryFile(path);
+      OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(partPath.toFile(), entries);
+      FileHelper.move(partPath, path);
+    } catch (IOException e) {
+      log.warn("Could not save cache manifest to {}: {}", path, e.getMessage());
+      deleteQuietly(partPath);
+    }
+  }
+
+  /**
+   * Deletes the temporary file of a failed save, if any.
+   *
+   * @param partPath the temporary file, or null
+   */
+  private static void deleteQuietly(Path partPath) {
+    if (partPath != null) {
+      try {
+        Files.deleteIfExists(partPath);
+      } catch (IOException e) {
+        log.warn("Could not delete {}: {}", partPath, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Reads the manifest on first use. A missing or unreadable file means nothing is recorded.
+   *
+   * @return entry per resource key
+   */
+  private Map<String, Entry> load() {
+    if (entries == null) {
+      entries = new TreeMap<>();
+      if (FileHelper.hasContent(path)) {
+        try {
+          entries.putAll(
+              OBJECT_MAPPER.readValue(
+                  path.toFile(), new TypeReference<TreeMap<String, Entry>>() {}));
+        } catch (IOException e) {
+          log.warn("Could not read cache manifest from {}: {}", path, e.getMessage());
+        }
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * What is known about a cached resource.
+   *
+   * @param file name of the cache file, which depends on the cache encoding
+   * @param fetched when the resource was last fetched or revalidated, in epoch milliseconds
+   * @param size size of the cache file in bytes
+   * @param checksum CRC32C of the cache file
+   * @param records number of records in the resource
+   */
+  public record Entry(String file, long fetched, long size, long checksum, int records) {
+
+    /**
+     * Gets when the resource was last fetched or revalidated.
+     *
+     * @return the fetch time
+     */
+    public Instant fetchedTime() {
+      return Instant.ofEpochMilli(fetched);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package util;
+
+import exception.SleeperApiException;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind persistence for the cache: writes are queued and run in order on one background
+ * thread, started when needed, so fetch threads never wait for the disk. Writes that fail are
+ * logged and skipped, since anything that was not persisted is fetched again by the next run. Every
+ * write must leave the cache consistent on its own (appending unindexed data, or writing a
+ * temporary file and moving it into place), so a crash with writes still queued never leaves a torn
+ * file.
+ */
+@Slf4j
+public class CacheWriter {
+
+  // Idle time after which the writer thread stops; it is restarted by the next write
+  private static final long KEEP_ALIVE_SECONDS = 5;
+
+  private final AtomicInteger failures = new AtomicInteger();
+  private final ExecutorService executor =
+      new ThreadPoolExecutor(
+          0,
+          1,
+          KEEP_ALIVE_SECONDS,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "cache-writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /**
+   * Queues a write.
+   *
+   * @param description what is written, for the log
+   * @param write the write
+   */
+  public void submit(String description, Write write) {
+    executor.execute(
+        () -> {
+          try {
+            write.run();
+          } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            log.error("Failed to write {} to the cache: {}", description, e.getMessage());
+          }
+        });
+  }
+
+  /**
+   * Waits until every write queued so far is done.
+   *
+   * @return number of writes that failed since the last call
+   * @throws SleeperApiException if interrupted while waiting
+   */
+  public int flush() {
+    Future<?> barrier = executor.submit(() -> {});
+    try {
+      barrier.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SleeperApiException("Interrupted while waiting for cache writes", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Cache write barrier failed", e.getCause());
+    }
+    return failures.getAndSet(0);
+  }
+
+  /** A queued cache write. */
+  @FunctionalInterface
+  public interface Write {
+    /**
+     * Performs the write.
+     *
+     * @throws IOException if the write fails
+     */
+    void run() throws IOException;
+  }
+}
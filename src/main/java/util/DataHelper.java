@@ -1,21 +1,45 @@
 package util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import exception.SleeperApiException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import model.*;
+import model.dto.LeagueDto;
 import model.dto.MatchupDto;
+import model.dto.NflStateDto;
 import model.dto.PlayerResponse;
 import model.dto.TransactionDto;
 import model.mapper.DomainMapper;
+import model.mapper.SnapshotCodec;
+import service.CacheValidators;
+import service.ConditionalResponse;
+import service.HttpService;
 import service.SleeperRest;
 
 /**
@@ -27,8 +51,20 @@ import service.SleeperRest;
 public class DataHelper {
 
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-  private static final int MAX_ROUNDS = 20;
   private static final Path DATA_DIRECTORY = Paths.get("sleeper_data");
+  private static final FrozenSeasons FROZEN_SEASONS =
+      new FrozenSeasons(DATA_DIRECTORY.resolve("frozen_seasons.json"));
+  private static final CacheWriter CACHE_WRITER = new CacheWriter();
+  private static final SegmentStore SEGMENTS = new SegmentStore(DATA_DIRECTORY, CACHE_WRITER);
+  private static final CacheManifest MANIFEST =
+      new CacheManifest(DATA_DIRECTORY.resolve("cache_manifest.json"));
+  private static final DomainSnapshot SNAPSHOTS =
+      new DomainSnapshot(DATA_DIRECTORY.resolve("snapshots"), SnapshotCodec.VERSION, CACHE_WRITER);
+  private static final Path CACHE_LOCK = DATA_DIRECTORY.resolve("cache.lock");
+  private static final String COMPLETE = "complete";
+
+  // Shared lock on the cache, held from first use until the process exits
+  private static FileLock cacheLock;
 
   /**
    * Fetches all NFL players from cache or API and maps them to domain models.
@@ -40,38 +76,73 @@ public class DataHelper {
    * @throws IllegalStateException if data cannot be retrieved or parsed
    */
   public static Map<String, Player> getNflPlayers(boolean forceRefresh) {
-    log.debug("Fetching NFL players (forceRefresh: {})", forceRefresh);
+    return getNflPlayers(forceRefresh ? RefreshMode.FULL : RefreshMode.CACHED);
+  }
 
-    Path filePath = DATA_DIRECTORY.resolve("nfl_players.json");
-    String content = FileHelper.getFileContent(filePath);
+  /**
+   * Fetches all NFL players from cache or API and maps them to domain models. The cached copy is
+   * revalidated by any refresh, and on a normal run once it is older than the players TTL.
+   *
+   * <p>The mapped players are snapshotted, and while the cache file is unchanged a normal run loads
+   * the {@link DomainSnapshot} instead of parsing and mapping the file.
+   *
+   * @param refreshMode how cached data is refreshed
+   * @return Map of player IDs to Player domain model objects
+   * @throws SleeperApiException if API request or JSON parsing fails
+   * @throws IllegalStateException if data cannot be retrieved or parsed
+   */
+  public static Map<String, Player> getNflPlayers(RefreshMode refreshMode) {
+    lockCache();
+    Path basePath = DATA_DIRECTORY.resolve("nfl_players");
+    String key = manifestKey(basePath);
+    CacheManifest.Entry manifestEntry = MANIFEST.get(key);
+    boolean stale =
+        manifestEntry != null
+            ? FreshnessPolicy.isStale(ResourceType.PLAYERS, manifestEntry.fetchedTime())
+            : FreshnessPolicy.isStale(ResourceType.PLAYERS, findCacheFile(basePath));
+    boolean forceRefresh = refreshMode != RefreshMode.CACHED || stale;
+    log.debug("Fetching NFL players (refreshMode: {}, refresh: {})", refreshMode, forceRefresh);
 
-    if (content.isEmpty() || forceRefresh) {
-      log.info("Fetching fresh NFL players data from API");
-      content = SleeperRest.getNflPlayersJson();
-      FileHelper.write(filePath, content);
-    } else {
-      log.debug("Using cached NFL players data");
+    if (!forceRefresh && isSnapshotSource(basePath, manifestEntry)) {
+      Map<String, Player> players =
+          SNAPSHOTS.read(key, fingerprint(manifestEntry), SnapshotCodec::readPlayers);
+      if (players != null) {
+        return players;
+      }
     }
 
+    JavaType type =
+        OBJECT_MAPPER
+            .getTypeFactory()
+            .constructMapType(Map.class, String.class, PlayerResponse.PlayerDto.class);
+
     try {
       // Parse to DTOs first
       Map<String, PlayerResponse.PlayerDto> dtoMap =
-          OBJECT_MAPPER.readValue(
-              content,
-              OBJECT_MAPPER
-                  .getTypeFactory()
-                  .constructMapType(Map.class, String.class, PlayerResponse.PlayerDto.class));
+          loadResource(basePath, forceRefresh, type, SleeperRest::getNflPlayers);
 
       // Map DTOs to domain models
-      return DomainMapper.toPlayerMap(dtoMap);
-    } catch (JsonProcessingException e) {
+      Map<String, Player> players = DomainMapper.toPlayerMap(dtoMap);
+
+      // Snapshot them once the cache file they came from is recorded
+      CACHE_WRITER.submit(
+          key + " snapshot",
+          () -> {
+            CacheManifest.Entry entry = MANIFEST.get(key);
+            if (entry != null) {
+              SNAPSHOTS.save(key, fingerprint(entry), players, SnapshotCodec::writePlayers);
+            }
+          });
+      return players;
+    } catch (IOException e) {
       log.error("Failed to parse NFL players JSON", e);
       throw new SleeperApiException("Failed to parse NFL players data", e);
     }
   }
 
   /**
-   * Fetches matchups for multiple leagues across all rounds and maps to domain models.
+   * Fetches matchups for multiple leagues across the weeks of each league's season and maps to
+   * domain models.
    *
    * @param leagueIds list of league identifiers to fetch matchups for
    * @param forceRefresh if true, fetches fresh data from API; if false, uses cached data if
@@ -81,25 +152,43 @@ public class DataHelper {
    * @throws SleeperApiException if API requests fail
    */
   public static List<Matchup> getMatchups(List<String> leagueIds, boolean forceRefresh) {
-    validateLeagueIds(leagueIds);
-    log.debug(
-        "Fetching matchups for {} leagues (forceRefresh: {})", leagueIds.size(), forceRefresh);
+    return getMatchups(leagueIds, forceRefresh ? RefreshMode.FULL : RefreshMode.CACHED);
+  }
 
-    // Fetch DTOs
-    List<MatchupDto> dtos =
-        fetchDataForLeaguesAndRounds(
-            leagueIds,
-            forceRefresh,
-            "matchups/matchup_%s_%s.json",
-            (leagueId, round) -> SleeperRest.getMatchupsContent(leagueId, String.valueOf(round)),
-            MatchupDto.class);
+  /**
+   * Fetches matchups for multiple leagues across the weeks of each league's season and maps to
+   * domain models, refreshing cached rounds according to the given mode.
+   *
+   * @param leagueIds list of league identifiers to fetch matchups for
+   * @param refreshMode which cached rounds to revalidate with the API
+   * @return List of distinct Matchup domain model objects across all leagues and rounds
+   * @throws IllegalArgumentException if leagueIds is null or empty
+   * @throws SleeperApiException if API requests fail
+   */
+  public static List<Matchup> getMatchups(List<String> leagueIds, RefreshMode refreshMode) {
+    validateLeagueIds(leagueIds);
+    lockCache();
+    log.debug("Fetching matchups for {} leagues (refreshMode: {})", leagueIds.size(), refreshMode);
 
-    // Map to domain models
-    return DomainMapper.toMatchupList(dtos);
+    // Fetch DTOs and map them to domain models
+    return fetchDataForLeaguesAndRounds(
+        leagueIds,
+        refreshMode,
+        ResourceType.MATCHUPS,
+        "matchups/matchup_%s_%s",
+        WeekPlanner.WeekPlan::matchupWeeks,
+        (leagueId, round, validators, rawCopy) ->
+            SleeperRest.getMatchups(leagueId, String.valueOf(round), validators, rawCopy),
+        MatchupDto.class,
+        new RoundMapping<>(
+            DomainMapper::toMatchupList,
+            SnapshotCodec::writeMatchups,
+            SnapshotCodec::readMatchups));
   }
 
   /**
-   * Fetches transactions for multiple leagues across all rounds and maps to domain models.
+   * Fetches transactions for multiple leagues across the weeks of each league's season and maps to
+   * domain models.
    *
    * @param leagueIds list of league identifiers to fetch transactions for
    * @param forceRefresh if true, fetches fresh data from API; if false, uses cached data if
@@ -109,88 +198,899 @@ public class DataHelper {
    * @throws SleeperApiException if API requests fail
    */
   public static List<Transaction> getTransactions(List<String> leagueIds, boolean forceRefresh) {
+    return getTransactions(leagueIds, forceRefresh ? RefreshMode.FULL : RefreshMode.CACHED);
+  }
+
+  /**
+   * Fetches transactions for multiple leagues across the weeks of each league's season and maps to
+   * domain models, refreshing cached rounds according to the given mode.
+   *
+   * @param leagueIds list of league identifiers to fetch transactions for
+   * @param refreshMode which cached rounds to revalidate with the API
+   * @return List of distinct Transaction domain model objects across all leagues and rounds
+   * @throws IllegalArgumentException if leagueIds is null or empty
+   * @throws SleeperApiException if API requests fail
+   */
+  public static List<Transaction> getTransactions(List<String> leagueIds, RefreshMode refreshMode) {
     validateLeagueIds(leagueIds);
+    lockCache();
     log.debug(
-        "Fetching transactions for {} leagues (forceRefresh: {})", leagueIds.size(), forceRefresh);
-
-    // Fetch DTOs
-    List<TransactionDto> dtos =
-        fetchDataForLeaguesAndRounds(
-            leagueIds,
-            forceRefresh,
-            "transactions/transaction_%s_%s.json",
-            (leagueId, round) -> SleeperRest.getTransactionsJson(leagueId, String.valueOf(round)),
-            TransactionDto.class);
+        "Fetching transactions for {} leagues (refreshMode: {})", leagueIds.size(), refreshMode);
 
-    // Map to domain models
-    return DomainMapper.toTransactionList(dtos);
+    // Fetch DTOs and map them to domain models
+    return fetchDataForLeaguesAndRounds(
+        leagueIds,
+        refreshMode,
+        ResourceType.TRANSACTIONS,
+        "transactions/transaction_%s_%s",
+        WeekPlanner.WeekPlan::transactionWeeks,
+        (leagueId, round, validators, rawCopy) ->
+            SleeperRest.getTransactions(leagueId, String.valueOf(round), validators, rawCopy),
+        TransactionDto.class,
+        new RoundMapping<>(
+            DomainMapper::toTransactionList,
+            SnapshotCodec::writeTransactions,
+            SnapshotCodec::readTransactions));
   }
 
   /**
-   * Generic method to fetch DTO data for multiple leagues and rounds with caching.
+   * Generic method to fetch data for multiple leagues and rounds with caching and map it to domain
+   * models. Only the rounds each league's {@link WeekPlanner.WeekPlan} says can exist are fetched,
+   * concurrently and bounded by the configured fetch concurrency.
+   *
+   * <p>Rounds are cached in one {@link SegmentStore} segment per league, opened once and read with
+   * a single positioned read per round; new and changed rounds are appended and written in the
+   * background, and the segments' indexes are queued for writing once all rounds are done.
+   *
+   * <p>Once every round of a completed season's dataset has been refreshed without errors it is
+   * frozen, and neither incremental refreshes nor TTL expiry revalidate it again.
+   *
+   * <p>The mapped models are snapshotted under a fingerprint of the rounds' checksums; when no
+   * round needs refreshing and the fingerprint matches, the {@link DomainSnapshot} is loaded and no
+   * round is read, parsed or mapped.
    *
    * @param leagueIds list of league identifiers
-   * @param forceRefresh whether to force refresh from API
-   * @param filePathPattern pattern for cache file path (e.g., "matchups/matchup_%s_%s.json")
-   * @param apiCall function to fetch data from API (takes leagueId and round)
+   * @param refreshMode which cached rounds to revalidate with the API
+   * @param resourceType the type of data fetched, deciding its TTL and frozen record
+   * @param filePathPattern pattern of the per-round cache files of earlier versions, imported into
+   *     the dataset's segments (e.g., "matchups/matchup_%s_%s")
+   * @param weeks selects the rounds to fetch from a league's week plan
+   * @param apiCall function to fetch or revalidate data from API
    * @param clazz DTO class type to parse JSON into
-   * @param <T> DTO type parameter for the return list
-   * @return List of distinct DTO objects fetched across all leagues and rounds
+   * @param mapping maps the DTOs to domain models and snapshots them
+   * @param <T> DTO type parameter
+   * @param <D> domain model type parameter for the return list
+   * @return domain models of the distinct DTOs fetched across all leagues and rounds, in league
+   *     then round order
    */
-  private static <T> List<T> fetchDataForLeaguesAndRounds(
+  private static <T, D> List<D> fetchDataForLeaguesAndRounds(
       List<String> leagueIds,
-      boolean forceRefresh,
+      RefreshMode refreshMode,
+      ResourceType resourceType,
       String filePathPattern,
-      BiFunction<String, Integer, String> apiCall,
-      Class<T> clazz) {
+      Function<WeekPlanner.WeekPlan, List<Integer>> weeks,
+      RoundApiCall<T> apiCall,
+      Class<T> clazz,
+      RoundMapping<T, D> mapping) {
 
-    List<T> results = new ArrayList<>();
+    Map<String, LeagueDto> leagues = loadLeagues(leagueIds);
+    boolean needNflState =
+        refreshMode == RefreshMode.INCREMENTAL
+            || (refreshMode == RefreshMode.CACHED && FreshnessPolicy.expires(resourceType));
+    NflStateDto nflState = needNflState ? loadNflState() : null;
 
+    List<RoundFetcher.RoundKey> keys = new ArrayList<>();
+    Set<RoundFetcher.RoundKey> refreshKeys = new HashSet<>();
+    Set<String> partlyRefreshedLeagueIds = new HashSet<>();
+    Map<String, SegmentStore.Segment> segments = new HashMap<>();
+    int knownEmpty = 0;
     for (String leagueId : leagueIds) {
-      for (int round = 0; round < MAX_ROUNDS; round++) {
-        try {
-          Path filePath = DATA_DIRECTORY.resolve(String.format(filePathPattern, leagueId, round));
-          String content = FileHelper.getFileContent(filePath);
+      LeagueDto league = leagues.get(leagueId);
+      WeekPlanner.WeekPlan plan =
+          league != null ? WeekPlanner.plan(league) : WeekPlanner.fallback();
+      SegmentStore.Segment segment = openSegment(resourceType, leagueId, filePathPattern);
+      segments.put(leagueId, segment);
+      for (int round : weeks.apply(plan)) {
+        RoundFetcher.RoundKey key = new RoundFetcher.RoundKey(leagueId, round);
+        SegmentStore.Entry entry = segment.get(round);
+        Instant cachedAt = entry != null ? entry.modifiedTime() : null;
+        knownEmpty += entry != null && entry.isEmpty() ? 1 : 0;
+        keys.add(key);
+        if (shouldRefresh(refreshMode, resourceType, leagueId, league, round, nflState, cachedAt)) {
+          refreshKeys.add(key);
+        } else {
+          partlyRefreshedLeagueIds.add(leagueId);
+        }
+      }
+    }
+    log.debug(
+        "Planned {} {} rounds across {} leagues, {} to refresh, {} known to be empty",
+        keys.size(),
+        resourceType.getName(),
+        leagueIds.size(),
+        refreshKeys.size(),
+        knownEmpty);
 
-          if (content.isEmpty() || forceRefresh) {
-            log.debug("Fetching fresh data from API: league={}, round={}", leagueId, round);
-            content = apiCall.apply(leagueId, round);
-            FileHelper.write(filePath, content);
+    String snapshotName =
+        resourceType.getName() + "_" + Long.toHexString(DomainSnapshot.fingerprint(leagueIds));
+    if (refreshKeys.isEmpty()) {
+      Long fingerprint = fingerprint(keys, segments);
+      List<D> snapshot =
+          fingerprint != null ? SNAPSHOTS.read(snapshotName, fingerprint, mapping.decoder()) : null;
+      if (snapshot != null) {
+        return snapshot;
+      }
+    }
+
+    Set<String> failedLeagueIds = ConcurrentHashMap.newKeySet();
+    List<T> results =
+        RoundFetcher.fetchAll(
+            keys,
+            PropertiesUtil.getInstance().getFetchConcurrency(),
+            key ->
+                fetchRound(
+                    key.leagueId(),
+                    key.round(),
+                    refreshKeys.contains(key),
+                    segments.get(key.leagueId()),
+                    apiCall,
+                    clazz,
+                    failedLeagueIds));
+    SEGMENTS.flush();
+
+    leagues.forEach(
+        (leagueId, league) -> {
+          if (league != null
+              && COMPLETE.equals(league.getStatus())
+              && !partlyRefreshedLeagueIds.contains(leagueId)
+              && !failedLeagueIds.contains(leagueId)) {
+            FROZEN_SEASONS.freeze(resourceType.getName(), leagueId);
           }
+        });
 
-          List<T> parsedItems =
-              OBJECT_MAPPER.readValue(
-                  content,
-                  OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, clazz));
+    List<D> mapped = mapping.mapper().apply(results.stream().distinct().toList());
+    Long fingerprint = failedLeagueIds.isEmpty() ? fingerprint(keys, segments) : null;
+    if (fingerprint != null) {
+      SNAPSHOTS.write(snapshotName, fingerprint, mapped, mapping.encoder());
+    }
+    return mapped;
+  }
 
-          if (!parsedItems.isEmpty()) {
-            results.addAll(parsedItems);
+  /**
+   * Computes the fingerprint of the cached rounds a {@link DomainSnapshot} is mapped from.
+   *
+   * @param keys the rounds, in order
+   * @param segments the segment of each league
+   * @return the fingerprint, or null if a round is not cached or has no checksum
+   */
+  private static Long fingerprint(
+      List<RoundFetcher.RoundKey> keys, Map<String, SegmentStore.Segment> segments) {
+    List<Object> parts = new ArrayList<>(keys.size() * 4);
+    for (RoundFetcher.RoundKey key : keys) {
+      SegmentStore.Entry entry = segments.get(key.leagueId()).get(key.round());
+      if (entry == null || entry.checksum() == null) {
+        return null;
+      }
+      parts.add(key.leagueId());
+      parts.add(key.round());
+      parts.add(entry.length());
+      parts.add(entry.checksum());
+    }
+    return DomainSnapshot.fingerprint(parts.toArray());
+  }
+
+  /**
+   * Computes the fingerprint of a cached resource a {@link DomainSnapshot} is mapped from.
+   *
+   * @param entry the manifest entry of the resource
+   * @return the fingerprint
+   */
+  private static long fingerprint(CacheManifest.Entry entry) {
+    return DomainSnapshot.fingerprint(entry.file(), entry.size(), entry.checksum());
+  }
+
+  /**
+   * Checks whether a resource's snapshot may be used instead of its cache file: the file must be
+   * recorded in the {@link CacheManifest}, still match it and be stored in the configured encoding,
+   * so that cache files are still converted when the encoding changes.
+   *
+   * @param basePath path of the cache file without extension
+   * @param entry the manifest entry of the resource, or null if it is not recorded
+   * @return true if the snapshot may be used
+   */
+  private static boolean isSnapshotSource(Path basePath, CacheManifest.Entry entry) {
+    if (entry == null) {
+      return false;
+    }
+    Path filePath = CacheEncoding.configured().resolve(basePath);
+    return entry.file().equals(filePath.getFileName().toString())
+        && MANIFEST.matches(manifestKey(basePath), filePath);
+  }
+
+  /**
+   * Decides whether a cached round should be revalidated with the API. A full refresh revalidates
+   * everything; an incremental refresh revalidates rounds that can still change; a normal run
+   * revalidates rounds that can still change once their cached copy is older than the TTL.
+   *
+   * @param refreshMode which cached rounds to revalidate
+   * @param resourceType the type of data fetched
+   * @param leagueId the league identifier
+   * @param league the league, or null if it could not be loaded
+   * @param round the round/week number
+   * @param nflState the current NFL season and week, or null if unknown
+   * @param cachedAt when the cached copy was last fetched or revalidated, or null if there is none
+   * @return true if the round should be revalidated
+   */
+  private static boolean shouldRefresh(
+      RefreshMode refreshMode,
+      ResourceType resourceType,
+      String leagueId,
+      LeagueDto league,
+      int round,
+      NflStateDto nflState,
+      Instant cachedAt) {
+    return switch (refreshMode) {
+      case FULL -> true;
+      case INCREMENTAL -> canStillChange(resourceType, leagueId, league, round, nflState);
+      case CACHED ->
+          FreshnessPolicy.isStale(resourceType, cachedAt)
+              && canStillChange(resourceType, leagueId, league, round, nflState);
+    };
+  }
+
+  /**
+   * Checks whether a round's data can still change: it is not frozen and, in the current season, it
+   * is not before the week just played.
+   *
+   * @param resourceType the type of data fetched
+   * @param leagueId the league identifier
+   * @param league the league, or null if it could not be loaded
+   * @param round the round/week number
+   * @param nflState the current NFL season and week, or null if unknown
+   * @return true if the round can still change
+   */
+  private static boolean canStillChange(
+      ResourceType resourceType,
+      String leagueId,
+      LeagueDto league,
+      int round,
+      NflStateDto nflState) {
+    if (FROZEN_SEASONS.isFrozen(resourceType.getName(), leagueId)) {
+      return false;
+    }
+    if (league == null || nflState == null || COMPLETE.equals(league.getStatus())) {
+      // Unknown state, or a completed season refreshed once more before it is frozen
+      return true;
+    }
+    if (!nflState.getSeason().equals(league.getSeason())) {
+      return true;
+    }
+    // Scores and waivers of the week just played can still be settling
+    return round >= nflState.getWeek() - 1;
+  }
+
+  /**
+   * Opens the segment caching a league's rounds of a dataset, importing the league's per-round
+   * cache files of earlier versions the first time.
+   *
+   * @param resourceType the type of data cached
+   * @param leagueId the league identifier
+   * @param filePathPattern pattern of the per-round cache files without extension
+   * @return the segment
+   * @throws SleeperApiException if the segment cannot be opened
+   */
+  private static SegmentStore.Segment openSegment(
+      ResourceType resourceType, String leagueId, String filePathPattern) {
+    try {
+      SegmentStore.Segment segment = SEGMENTS.segment(resourceType.getName(), leagueId);
+      segment.importLegacyFiles(DATA_DIRECTORY, filePathPattern);
+      return segment;
+    } catch (IOException e) {
+      log.error("Failed to open {} cache of league {}", resourceType.getName(), leagueId, e);
+      throw new SleeperApiException(
+          "Failed to open " + resourceType.getName() + " cache of league " + leagueId, e);
+    }
+  }
+
+  /**
+   * Loads the current NFL state for incremental refreshes.
+   *
+   * @return the NFL state, or null if it cannot be loaded, in which case everything is refreshed
+   */
+  private static NflStateDto loadNflState() {
+    try {
+      NflStateDto nflState = SleeperRest.getNflState();
+      if (nflState != null && nflState.getSeason() != null) {
+        log.debug("NFL state: season {}, week {}", nflState.getSeason(), nflState.getWeek());
+        return nflState;
+      }
+      log.warn("NFL state has no season, refreshing all rounds");
+    } catch (SleeperApiException e) {
+      log.warn("Could not load NFL state, refreshing all rounds: {}", e.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Loads the settings and status of each league, which decide the weeks to fetch and refresh.
+   * League requests are sent concurrently and shared with other callers; a league that cannot be
+   * loaded maps to null and falls back to probing and refreshing every round.
+   *
+   * @param leagueIds list of league identifiers
+   * @return league per league ID, in the given order
+   */
+  private static Map<String, LeagueDto> loadLeagues(List<String> leagueIds) {
+    Map<String, CompletableFuture<LeagueDto>> futures = new LinkedHashMap<>();
+    for (String leagueId : leagueIds) {
+      futures.put(leagueId, SleeperRest.getLeagueAsync(leagueId));
+    }
+
+    Map<String, LeagueDto> leagues = new LinkedHashMap<>();
+    futures.forEach(
+        (leagueId, future) -> {
+          try {
+            leagues.put(leagueId, HttpService.join(future));
+          } catch (SleeperApiException e) {
+            log.warn(
+                "Could not load settings for league {}, probing all rounds: {}",
+                leagueId,
+                e.getMessage());
+            leagues.put(leagueId, null);
           }
+        });
+    return leagues;
+  }
+
+  /**
+   * Fetches and parses a single league round from cache or API. Errors are logged and result in an
+   * empty list so that one failing round never affects the others.
+   *
+   * @param leagueId the league identifier
+   * @param round the round/week number
+   * @param forceRefresh whether to force refresh from API
+   * @param segment the segment caching the league's rounds
+   * @param apiCall function to fetch or revalidate data from API
+   * @param clazz DTO class type to parse JSON into
+   * @param failedLeagueIds collects the IDs of leagues with a failed round
+   * @param <T> DTO type parameter for the return list
+   * @return parsed DTO objects for the round, or an empty list if the round failed
+   */
+  private static <T> List<T> fetchRound(
+      String leagueId,
+      int round,
+      boolean forceRefresh,
+      SegmentStore.Segment segment,
+      RoundApiCall<T> apiCall,
+      Class<T> clazz,
+      Set<String> failedLeagueIds) {
+
+    try {
+      SegmentStore.Entry entry = segment.get(round);
+      if (!forceRefresh && entry != null && entry.isEmpty()) {
+        return new ArrayList<>();
+      }
+      return loadRound(
+          segment,
+          round,
+          forceRefresh,
+          OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, clazz),
+          (validators, rawCopy) -> apiCall.fetch(leagueId, round, validators, rawCopy));
 
-        } catch (SleeperApiException e) {
-          log.warn(
-              "API error fetching data for league={}, round={}: {}",
-              leagueId,
-              round,
-              e.getMessage());
-          // Continue with other rounds/leagues
-        } catch (JsonProcessingException e) {
-          log.error(
-              "JSON parsing error for league={}, round={}: {}", leagueId, round, e.getMessage());
-          // Continue with other rounds/leagues
-        } catch (Exception e) {
-          log.error(
-              "Unexpected error fetching data for league={}, round={}: {}",
-              leagueId,
-              round,
-              e.getMessage(),
-              e);
-          // Continue with other rounds/leagues
+    } catch (SleeperApiException e) {
+      log.warn(
+          "API error fetching data for league={}, round={}: {}", leagueId, round, e.getMessage());
+    } catch (JsonProcessingException e) {
+      log.error("JSON parsing error for league={}, round={}: {}", leagueId, round, e.getMessage());
+    } catch (IOException e) {
+      log.error("Cache I/O error for league={}, round={}: {}", leagueId, round, e.getMessage());
+    } catch (Exception e) {
+      log.error(
+          "Unexpected error fetching data for league={}, round={}: {}",
+          leagueId,
+          round,
+          e.getMessage(),
+          e);
+    }
+
+    // Continue with other rounds/leagues
+    failedLeagueIds.add(leagueId);
+    return new ArrayList<>();
+  }
+
+  /**
+   * Loads a resource from the cache, fetching it from the API if it is missing or a refresh is
+   * forced. Fetched responses are parsed as they stream in while their raw bytes are copied to a
+   * temporary file, so the payload is never held in memory as a string or parsed twice; the copy is
+   * then stored in the configured {@link CacheEncoding} by the background {@link CacheWriter}. A
+   * forced refresh of a cached resource is sent as a conditional request using the validators
+   * stored next to the cached file, so unchanged resources are not downloaded again. A cache file
+   * that does not match the {@link CacheManifest} or cannot be parsed is fetched again in full.
+   *
+   * @param basePath path of the cache file without extension
+   * @param forceRefresh whether to revalidate the cached copy with the API
+   * @param type the type to parse the resource into
+   * @param apiCall function to fetch or revalidate the resource
+   * @param <T> the parsed resource type
+   * @return the parsed resource
+   * @throws SleeperApiException if the API request fails
+   * @throws IOException if the cache file cannot be read, written or parsed
+   */
+  private static <T> T loadResource(
+      Path basePath, boolean forceRefresh, JavaType type, ResourceApiCall<T> apiCall)
+      throws IOException {
+    Path filePath = cacheFile(basePath);
+    String key = manifestKey(basePath);
+    boolean cached = FileHelper.hasContent(filePath);
+    if (cached && !MANIFEST.matches(key, filePath)) {
+      log.warn("Cache file {} does not match the cache manifest, fetching it again", filePath);
+      cached = false;
+    }
+    if (cached && !forceRefresh) {
+      log.debug("Using cached data: {}", filePath);
+      T resource = readIntact(key, filePath, type);
+      if (resource != null) {
+        return resource;
+      }
+      cached = false;
+    }
+
+    Path validatorsPath = getValidatorsPath(filePath);
+    CacheValidators validators = cached ? readValidators(validatorsPath) : CacheValidators.NONE;
+
+    log.debug("Fetching fresh data from API: {}", filePath);
+    Path rawPath = FileHelper.temporaryFile(filePath);
+    ConditionalResponse<T> response;
+    try (OutputStream rawCopy = FileHelper.newOutputStream(rawPath)) {
+      response = apiCall.fetch(validators, rawCopy);
+    } catch (RuntimeException | IOException e) {
+      Files.deleteIfExists(rawPath);
+      throw e;
+    }
+    if (response.notModified()) {
+      CACHE_WRITER.submit(
+          filePath.toString(),
+          () -> {
+            Files.deleteIfExists(rawPath);
+            FreshnessPolicy.touch(filePath);
+            MANIFEST.touch(key);
+          });
+      log.debug("Cached data is still current: {}", filePath);
+      return readCached(filePath, type);
+    }
+
+    Instant fetched = Instant.now();
+    int records = countRecords(response.body());
+    CACHE_WRITER.submit(
+        filePath.toString(),
+        () -> writeResource(rawPath, filePath, key, response.validators(), fetched, records));
+    return response.body();
+  }
+
+  /**
+   * Stores a fetched resource in the configured {@link CacheEncoding}, with its validators and
+   * manifest entry. Runs on the background writer; the raw copy is encoded next to the cache file,
+   * unless it can be stored as is, and moved into place, so it is never seen half-written.
+   *
+   * @param rawPath temporary file holding the fetched JSON payload, consumed by this call
+   * @param filePath path of the cache file
+   * @param key the manifest key of the resource
+   * @param validators HTTP validators of the payload
+   * @param fetched when the resource was fetched
+   * @param records number of records in the resource
+   * @throws IOException if the file cannot be written
+   */
+  private static void writeResource(
+      Path rawPath,
+      Path filePath,
+      String key,
+      CacheValidators validators,
+      Instant fetched,
+      int records)
+      throws IOException {
+    CacheEncoding encoding = CacheEncoding.configured();
+    boolean prettyPrint = PropertiesUtil.getInstance().isCachePrettyPrint();
+    Path partPath = rawPath;
+    try {
+      if (!encoding.storesRawJson(prettyPrint)) {
+        partPath = FileHelper.temporaryFile(filePath);
+        try (InputStream json = new BufferedInputStream(Files.newInputStream(rawPath))) {
+          encoding.write(json, partPath, prettyPrint);
         }
       }
+      FileHelper.replace(partPath, filePath);
+    } catch (IOException e) {
+      Files.deleteIfExists(partPath);
+      throw e;
+    } finally {
+      Files.deleteIfExists(rawPath);
     }
+    writeValidators(getValidatorsPath(filePath), validators);
+    record(key, filePath, fetched, records);
+  }
 
-    return results.stream().distinct().collect(Collectors.toList());
+  /**
+   * Waits until every fetched payload queued for the cache is written. Called once at the end of a
+   * run; payloads still queued when the process stops are fetched again by the next run.
+   */
+  public static void awaitCacheWrites() {
+    int failures = CACHE_WRITER.flush();
+    if (failures > 0) {
+      log.warn("{} cache writes failed, their data will be fetched again", failures);
+    }
+  }
+
+  /**
+   * Compacts the cache: rewrites each round segment with only the payloads its index points to, and
+   * deletes segment data without an index and temporary files left by interrupted writes. Queued
+   * cache writes are finished first. Compaction needs the cache to itself, so it fails at once
+   * while another process is using the cache.
+   *
+   * @return bytes reclaimed
+   * @throws SleeperApiException if the cache is in use or a segment cannot be compacted
+   */
+  public static synchronized long compactCache() {
+    long reclaimed = 0;
+    try {
+      CACHE_WRITER.flush();
+      if (cacheLock != null) {
+        cacheLock.channel().close();
+        cacheLock = null;
+      }
+      FileLock exclusiveLock = FileHelper.lock(CACHE_LOCK, false, false);
+      if (exclusiveLock == null) {
+        throw new SleeperApiException(
+            "The cache is in use by another process, compact it once that has finished");
+      }
+      try {
+        for (ResourceType resourceType :
+            List.of(ResourceType.MATCHUPS, ResourceType.TRANSACTIONS)) {
+          reclaimed += SEGMENTS.compact(resourceType.getName());
+        }
+        CACHE_WRITER.flush();
+        for (Path directory : List.of(DATA_DIRECTORY, DATA_DIRECTORY.resolve("snapshots"))) {
+          reclaimed += deleteTemporaryFiles(directory);
+        }
+      } finally {
+        // Closing the channel releases the lock
+        exclusiveLock.channel().close();
+      }
+    } catch (IOException e) {
+      log.error("Failed to compact the cache", e);
+      throw new SleeperApiException("Failed to compact the cache", e);
+    }
+    return reclaimed;
+  }
+
+  /**
+   * Takes a shared lock on the cache on first use and holds it until the process exits. Any number
+   * of processes may share the cache; the lock only keeps {@link #compactCache()} from moving data
+   * under them, and waits while a compaction is running.
+   *
+   * @throws SleeperApiException if the lock file cannot be locked
+   */
+  private static synchronized void lockCache() {
+    if (cacheLock != null) {
+      return;
+    }
+    try {
+      cacheLock = FileHelper.lock(CACHE_LOCK, true, true);
+    } catch (IOException e) {
+      throw new SleeperApiException("Failed to lock the cache", e);
+    }
+  }
+
+  /**
+   * Deletes the temporary files left in a directory by interrupted writes. Only called once every
+   * queued write is done.
+   *
+   * @param directory the directory
+   * @return bytes reclaimed
+   * @throws IOException if the directory cannot be listed or a file cannot be deleted
+   */
+  private static long deleteTemporaryFiles(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return 0;
+    }
+    long reclaimed = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.part")) {
+      for (Path file : stream) {
+        reclaimed += Files.size(file);
+        Files.delete(file);
+        log.info("Deleted unreferenced cache file {}", file);
+      }
+    }
+    return reclaimed;
+  }
+
+  /**
+   * Parses a cache file that is expected to be intact, recording it in the {@link CacheManifest} if
+   * it is not recorded yet, e.g. because it was cached by an earlier version or converted to
+   * another encoding.
+   *
+   * @param key the manifest key of the resource
+   * @param filePath path of the cache file
+   * @param type the type to parse into
+   * @param <T> the parsed type
+   * @return the parsed content, or null if the file is corrupt
+   * @throws IOException if the file cannot be read
+   */
+  private static <T> T readIntact(String key, Path filePath, JavaType type) throws IOException {
+    T resource;
+    try {
+      resource = readCached(filePath, type);
+    } catch (JsonProcessingException e) {
+      log.warn("Cache file {} is corrupt, fetching it again: {}", filePath, e.getMessage());
+      return null;
+    }
+
+    CacheManifest.Entry entry = MANIFEST.get(key);
+    if (entry == null || !entry.file().equals(filePath.getFileName().toString())) {
+      Instant fetched =
+          entry != null ? entry.fetchedTime() : Files.getLastModifiedTime(filePath).toInstant();
+      record(key, filePath, fetched, countRecords(resource));
+    }
+    return resource;
+  }
+
+  /**
+   * Records a cache file in the {@link CacheManifest}. Failures are logged, since the file is
+   * recorded again the next time it is read.
+   *
+   * @param key the manifest key of the resource
+   * @param filePath path of the cache file
+   * @param fetched when the resource was fetched
+   * @param records number of records in the resource
+   */
+  private static void record(String key, Path filePath, Instant fetched, int records) {
+    try {
+      MANIFEST.put(
+          key,
+          new CacheManifest.Entry(
+              filePath.getFileName().toString(),
+              fetched.toEpochMilli(),
+              Files.size(filePath),
+              FileHelper.checksum(filePath),
+              records));
+    } catch (IOException e) {
+      log.warn("Could not record {} in the cache manifest: {}", filePath, e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the key of a resource in the {@link CacheManifest}.
+   *
+   * @param basePath path of the cache file without extension
+   * @return the path relative to the cache directory, e.g. "nfl_players"
+   */
+  private static String manifestKey(Path basePath) {
+    return DATA_DIRECTORY.relativize(basePath).toString();
+  }
+
+  /**
+   * Counts the records of a parsed resource.
+   *
+   * @param resource the parsed resource
+   * @return the number of list items or map entries, or 1 for any other value
+   */
+  private static int countRecords(Object resource) {
+    if (resource instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (resource instanceof Map<?, ?> map) {
+      return map.size();
+    }
+    return 1;
+  }
+
+  /**
+   * Loads a league round from its segment, fetching it from the API if it is missing, corrupt or a
+   * refresh is forced. A forced refresh is sent as a conditional request using the validators in
+   * the segment's index. Round payloads are small, so a fetched response is copied in memory,
+   * encoded in the configured {@link CacheEncoding} and appended to the segment, which writes it in
+   * the background.
+   *
+   * @param segment the segment caching the league's rounds
+   * @param round the round/week number
+   * @param forceRefresh whether to revalidate the cached copy with the API
+   * @param type the type to parse the round into
+   * @param apiCall function to fetch or revalidate the round
+   * @param <T> the parsed round type
+   * @return the parsed round
+   * @throws SleeperApiException if the API request fails
+   * @throws IOException if the segment cannot be read, written or parsed
+   */
+  private static <T> T loadRound(
+      SegmentStore.Segment segment,
+      int round,
+      boolean forceRefresh,
+      JavaType type,
+      ResourceApiCall<T> apiCall)
+      throws IOException {
+    SegmentStore.Entry entry = segment.get(round);
+    byte[] cachedPayload = entry != null ? segment.readVerified(round, entry) : null;
+    if (cachedPayload != null && !forceRefresh) {
+      return entry.encoding().read(cachedPayload, OBJECT_MAPPER, type);
+    }
+
+    CacheValidators validators = cachedPayload != null ? entry.validators() : CacheValidators.NONE;
+    ByteArrayOutputStream rawCopy = new ByteArrayOutputStream();
+    ConditionalResponse<T> response = apiCall.fetch(validators, rawCopy);
+    if (response.notModified()) {
+      segment.touch(round);
+      log.debug("Cached round {} is still current", round);
+      return entry.encoding().read(cachedPayload, OBJECT_MAPPER, type);
+    }
+
+    CacheEncoding encoding = CacheEncoding.configured();
+    boolean prettyPrint = PropertiesUtil.getInstance().isCachePrettyPrint();
+    byte[] payload =
+        encoding.storesRawJson(prettyPrint)
+            ? rawCopy.toByteArray()
+            : encoding.encode(new ByteArrayInputStream(rawCopy.toByteArray()), prettyPrint);
+    segment.append(
+        round,
+        payload,
+        encoding,
+        response.validators(),
+        Instant.now(),
+        countRecords(response.body()));
+    return response.body();
+  }
+
+  /**
+   * Gets the cache file of a resource in the configured encoding. A copy cached with another format
+   * or compression is converted first, keeping its modification time and validators, so changing
+   * {@code sleeper.cache.format} or {@code sleeper.cache.compress} never refetches anything. The
+   * conversion holds a lock file, so processes sharing the cache convert each copy once.
+   *
+   * @param basePath path of the cache file without extension
+   * @return the cache file, which may not exist yet
+   * @throws IOException if a copy in another encoding cannot be converted
+   */
+  private static Path cacheFile(Path basePath) throws IOException {
+    CacheEncoding encoding = CacheEncoding.configured();
+    Path filePath = encoding.resolve(basePath);
+    if (FileHelper.hasContent(filePath)) {
+      return filePath;
+    }
+    Path lockPath = basePath.resolveSibling(basePath.getFileName() + ".lock");
+    return FileHelper.withLock(lockPath, () -> convertCacheFile(basePath, encoding, filePath));
+  }
+
+  /**
+   * Converts a copy of a resource cached in another encoding, if there is one and the resource has
+   * not been converted in the meantime. Must hold the resource's lock file.
+   *
+   * @param basePath path of the cache file without extension
+   * @param encoding the configured encoding
+   * @param filePath the cache file in the configured encoding
+   * @return the cache file, which may not exist yet
+   * @throws IOException if a copy in another encoding cannot be converted
+   */
+  private static Path convertCacheFile(Path basePath, CacheEncoding encoding, Path filePath)
+      throws IOException {
+    if (FileHelper.hasContent(filePath)) {
+      return filePath;
+    }
+
+    for (CacheEncoding sourceEncoding : CacheEncoding.all()) {
+      Path sourcePath = sourceEncoding.resolve(basePath);
+      if (!sourceEncoding.equals(encoding) && FileHelper.hasContent(sourcePath)) {
+        Path partPath = FileHelper.temporaryFile(filePath);
+        try {
+          encoding.convert(
+              sourcePath,
+              sourceEncoding,
+              partPath,
+              PropertiesUtil.getInstance().isCachePrettyPrint());
+        } catch (IOException e) {
+          Files.deleteIfExists(partPath);
+          throw e;
+        }
+        Files.setLastModifiedTime(partPath, Files.getLastModifiedTime(sourcePath));
+        FileHelper.replace(partPath, filePath);
+
+        Path sourceValidators = getValidatorsPath(sourcePath);
+        if (Files.exists(sourceValidators)) {
+          Files.move(
+              sourceValidators, getValidatorsPath(filePath), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.delete(sourcePath);
+        log.debug("Converted cache file {} to {}", sourcePath, filePath.getFileName());
+        break;
+      }
+    }
+    return filePath;
+  }
+
+  /**
+   * Finds the cache file of a resource without converting it, preferring the configured encoding.
+   *
+   * @param basePath path of the cache file without extension
+   * @return the existing cache file, or the configured encoding's file if there is none
+   */
+  private static Path findCacheFile(Path basePath) {
+    CacheEncoding encoding = CacheEncoding.configured();
+    Path filePath = encoding.resolve(basePath);
+    if (FileHelper.hasContent(filePath)) {
+      return filePath;
+    }
+
+    for (CacheEncoding sourceEncoding : CacheEncoding.all()) {
+      Path sourcePath = sourceEncoding.resolve(basePath);
+      if (!sourceEncoding.equals(encoding) && FileHelper.hasContent(sourcePath)) {
+        return sourcePath;
+      }
+    }
+    return filePath;
+  }
+
+  /**
+   * Parses a cache file in the configured encoding directly from disk.
+   *
+   * @param filePath path of the cache file
+   * @param type the type to parse into
+   * @param <T> the parsed type
+   * @return the parsed content
+   * @throws IOException if the file cannot be read or parsed
+   */
+  private static <T> T readCached(Path filePath, JavaType type) throws IOException {
+    return CacheEncoding.configured().read(filePath, OBJECT_MAPPER, type);
+  }
+
+  /**
+   * Gets the path of the file holding the HTTP cache validators for a cache file.
+   *
+   * @param filePath path of the cache file
+   * @return path of its validators file
+   */
+  private static Path getValidatorsPath(Path filePath) {
+    return filePath.resolveSibling(filePath.getFileName() + ".validators");
+  }
+
+  /**
+   * Reads the HTTP cache validators stored for a cache file.
+   *
+   * @param validatorsPath path of the validators file
+   * @return the stored validators, or {@link CacheValidators#NONE} if there are none
+   */
+  private static CacheValidators readValidators(Path validatorsPath) {
+    if (!Files.exists(validatorsPath)) {
+      return CacheValidators.NONE;
+    }
+
+    try {
+      return OBJECT_MAPPER.readValue(
+          FileHelper.getFileContent(validatorsPath), CacheValidators.class);
+    } catch (JsonProcessingException e) {
+      log.warn("Ignoring unreadable cache validators {}: {}", validatorsPath, e.getMessage());
+      return CacheValidators.NONE;
+    }
+  }
+
+  /**
+   * Stores the HTTP cache validators for a cache file, removing stale ones if the server sent none.
+   *
+   * @param validatorsPath path of the validators file
+   * @param validators the validators to store
+   */
+  private static void writeValidators(Path validatorsPath, CacheValidators validators) {
+    try {
+      if (validators.isEmpty()) {
+        Files.deleteIfExists(validatorsPath);
+      } else {
+        Path partPath = FileHelper.temporaryFile(validatorsPath);
+        try {
+          Files.writeString(partPath, OBJECT_MAPPER.writeValueAsString(validators));
+          FileHelper.move(partPath, validatorsPath);
+        } catch (IOException e) {
+          Files.deleteIfExists(partPath);
+          throw e;
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Failed to update cache validators {}: {}", validatorsPath, e.getMessage());
+    }
   }
 
   /**
@@ -206,4 +1106,56 @@ public class DataHelper {
       throw new IllegalArgumentException(message);
     }
   }
+
+  /**
+   * Fetches or revalidates a cached resource from the API.
+   *
+   * @param <T> the parsed resource type
+   */
+  @FunctionalInterface
+  private interface ResourceApiCall<T> {
+    /**
+     * Fetches or revalidates the resource.
+     *
+     * @param validators validators of the cached copy, possibly empty
+     * @param rawCopy receives the raw response bytes
+     * @return the conditional response with the parsed resource
+     */
+    ConditionalResponse<T> fetch(CacheValidators validators, OutputStream rawCopy);
+  }
+
+  /**
+   * Maps the DTOs of a round-based dataset to domain models and encodes them for its {@link
+   * DomainSnapshot}.
+   *
+   * @param mapper maps the DTOs to domain models
+   * @param encoder writes the domain models to a snapshot
+   * @param decoder reads the domain models from a snapshot
+   * @param <T> DTO type
+   * @param <D> domain model type
+   */
+  private record RoundMapping<T, D>(
+      Function<List<T>, List<D>> mapper,
+      DomainSnapshot.Encoder<List<D>> encoder,
+      DomainSnapshot.Decoder<List<D>> decoder) {}
+
+  /**
+   * Fetches or revalidates one league round from the API.
+   *
+   * @param <T> DTO type of the round's items
+   */
+  @FunctionalInterface
+  private interface RoundApiCall<T> {
+    /**
+     * Fetches or revalidates one league round.
+     *
+     * @param leagueId the league identifier
+     * @param round the round/week number
+     * @param validators validators of the cached copy, possibly empty
+     * @param rawCopy receives the raw response bytes
+     * @return the conditional response with the parsed items
+     */
+    ConditionalResponse<List<T>> fetch(
+        String leagueId, int round, CacheValidators validators, OutputStream rawCopy);
+  }
 }
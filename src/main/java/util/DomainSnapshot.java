@@ -0,0 +1,255 @@
+package util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Snapshots of mapped domain models, so a warm run loads them with one read instead of parsing
+ * cached JSON and mapping it. Each snapshot is stamped with a fingerprint of the cached data it was
+ * mapped from and is only used while that fingerprint still matches, so it never outlives the
+ * cache. Snapshots are written by the {@link CacheWriter} and replaced atomically; one that is
+ * missing, stale or corrupt is simply ignored and rebuilt from the cache.
+ *
+ * <p>A snapshot file holds a 20 byte header (magic, codec version, fingerprint, payload length),
+ * the payload and the CRC32C of the payload.
+ */
+@Slf4j
+public class DomainSnapshot {
+
+  private static final int MAGIC = 0x534c534e; // "SLSN"
+  private static final int HEADER_SIZE = 20;
+  private static final int TRAILER_SIZE = 8;
+  private static final String EXTENSION = ".snap";
+
+  private final Path directory;
+  private final int version;
+  private final CacheWriter writer;
+
+  /**
+   * Creates a snapshot store.
+   *
+   * @param directory the directory holding the snapshots
+   * @param version version of the codec encoding the payloads; snapshots of other versions are
+   *     ignored
+   * @param writer the writer snapshots are written by
+   */
+  public DomainSnapshot(Path directory, int version, CacheWriter writer) {
+    this.directory = directory;
+    this.version = version;
+    this.writer = writer;
+  }
+
+  /**
+   * Reads a snapshot if it was taken from the cached data with the given fingerprint.
+   *
+   * @param name the snapshot name, e.g. "nfl_players"
+   * @param fingerprint fingerprint of the cached data the value is mapped from
+   * @param decoder decodes the payload
+   * @param <T> the snapshot type
+   * @return the value, or null if there is no matching, intact snapshot
+   */
+  public <T> T read(String name, long fingerprint, Decoder<T> decoder) {
+    Path path = path(name);
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try {
+      byte[] bytes = Files.readAllBytes(path);
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      if (bytes.length < HEADER_SIZE + TRAILER_SIZE
+          || buffer.getInt() != MAGIC
+          || buffer.getInt() != version
+          || buffer.getLong() != fingerprint) {
+        log.debug("Snapshot {} is stale", path);
+        return null;
+      }
+      int length = buffer.getInt();
+      if (length != bytes.length - HEADER_SIZE - TRAILER_SIZE) {
+        log.warn("Snapshot {} is truncated, rebuilding it", path);
+        discard(path);
+        return null;
+      }
+      CRC32C crc = new CRC32C();
+      crc.update(bytes, HEADER_SIZE, length);
+      if (crc.getValue() != buffer.getLong(HEADER_SIZE + length)) {
+        log.warn("Snapshot {} is corrupt, rebuilding it", path);
+        discard(path);
+        return null;
+      }
+      T value =
+          decoder.decode(new DataInputStream(new ByteArrayInputStream(bytes, HEADER_SIZE, length)));
+      log.debug("Loaded snapshot {}", path);
+      return value;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not read snapshot {}, rebuilding it: {}", path, e.getMessage());
+      discard(path);
+      return null;
+    }
+  }
+
+  /**
+   * Deletes a damaged snapshot, so it is written again even though its header is still current.
+   *
+   * @param path the snapshot file
+   */
+  private void discard(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("Could not delete snapshot {}: {}", path, e.getMessage());
+    }
+  }
+
+  /**
+   * Queues writing a snapshot, unless the stored one already has the given fingerprint. The value
+   * is encoded on the writer thread, so it must not be modified afterwards.
+   *
+   * @param name the snapshot name
+   * @param fingerprint fingerprint of the cached data the value was mapped from
+   * @param value the value
+   * @param encoder encodes the payload
+   * @param <T> the snapshot type
+   */
+  public <T> void write(String name, long fingerprint, T value, Encoder<T> encoder) {
+    writer.submit(path(name).toString(), () -> save(name, fingerprint, value, encoder));
+  }
+
+  /**
+   * Writes a snapshot on the calling thread, unless the stored one already has the given
+   * fingerprint. The previous snapshot is replaced atomically.
+   *
+   * @param name the snapshot name
+   * @param fingerprint fingerprint of the cached data the value was mapped from
+   * @param value the value
+   * @param encoder encodes the payload
+   * @param <T> the snapshot type
+   * @throws IOException if the snapshot cannot be encoded or written
+   */
+  public <T> void save(String name, long fingerprint, T value, Encoder<T> encoder)
+      throws IOException {
+    Path path = path(name);
+    if (isCurrent(path, fingerprint)) {
+      return;
+    }
+
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(payload);
+    encoder.encode(out, value);
+    out.flush();
+
+    byte[] bytes = payload.toByteArray();
+    CRC32C crc = new CRC32C();
+    crc.update(bytes);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(version).putLong(fingerprint).putInt(bytes.length);
+    ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).putLong(crc.getValue());
+
+    Path partPath = FileHelper.temporaryFile(path);
+    try {
+      try (OutputStream file = FileHelper.newOutputStream(partPath)) {
+        file.write(header.array());
+        file.write(bytes);
+        file.write(trailer.array());
+      }
+      FileHelper.move(partPath, path);
+    } catch (IOException e) {
+      Files.deleteIfExists(partPath);
+      throw e;
+    }
+    log.debug("Wrote snapshot {} ({} bytes)", path, bytes.length);
+  }
+
+  /**
+   * Computes a fingerprint of the parts identifying a state of the cache.
+   *
+   * @param parts the parts, such as file names, sizes and checksums
+   * @return the fingerprint
+   */
+  public static long fingerprint(Object... parts) {
+    StringBuilder text = new StringBuilder();
+    for (Object part : parts) {
+      text.append(part).append('\u0000');
+    }
+    return FileHelper.checksum(text.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Checks whether the stored snapshot already has the given fingerprint and version.
+   *
+   * @param path the snapshot file
+   * @param fingerprint the fingerprint
+   * @return true if writing the snapshot again can be skipped
+   */
+  private boolean isCurrent(Path path, long fingerprint) {
+    if (!Files.isRegularFile(path)) {
+      return false;
+    }
+    try (InputStream in = Files.newInputStream(path)) {
+      ByteBuffer header = ByteBuffer.wrap(in.readNBytes(HEADER_SIZE));
+      return header.capacity() == HEADER_SIZE
+          && header.getInt() == MAGIC
+          && header.getInt() == version
+          && header.getLong() == fingerprint
+          && header.getInt() == Files.size(path) - HEADER_SIZE - TRAILER_SIZE;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets the file of a snapshot.
+   *
+   * @param name the snapshot name
+   * @return the snapshot file
+   */
+  private Path path(String name) {
+    return directory.resolve(name + EXTENSION);
+  }
+
+  /**
+   * Encodes a snapshot payload.
+   *
+   * @param <T> the snapshot type
+   */
+  @FunctionalInterface
+  public interface Encoder<T> {
+    /**
+     * Writes a value.
+     *
+     * @param out the payload output
+     * @param value the value
+     * @throws IOException if the output cannot be written
+     */
+    void encode(DataOutput out, T value) throws IOException;
+  }
+
+  /**
+   * Decodes a snapshot payload.
+   *
+   * @param <T> the snapshot type
+   */
+  @FunctionalInterface
+  public interface Decoder<T> {
+    /**
+     * Reads a value.
+     *
+     * @param in the payload input
+     * @return the value
+     * @throws IOException if the payload is truncated or malformed
+     */
+    T decode(DataInput in) throws IOException;
+  }
+}
@@ -1,27 +1,230 @@
 package util;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FileHelper {
 
+  private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+  /**
+   * Writes a file atomically: the content is written to a temporary file next to it, which then
+   * replaces the file, so readers in this or another process never see it half-written.
+   *
+   * @param path the file to write
+   * @param content the content
+   */
   public static void write(Path path, String content) {
-    log.info("Writing to \"{}\"", path.toAbsolutePath());
     try {
-      if (!path.toFile().exists()) {
-        Files.createDirectories(path.getParent());
-        Files.createFile(path);
+      Path partPath = temporaryFile(path);
+      try {
+        Files.writeString(partPath, content, StandardCharsets.UTF_8);
+        replace(partPath, path);
+      } catch (IOException e) {
+        Files.deleteIfExists(partPath);
+        throw e;
       }
-      Files.writeString(path, content, StandardCharsets.UTF_8);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Gets a new temporary file to write a file's next content to before moving it into place with
+   * {@link #move(Path, Path)}. The name is unique, so processes writing the same file at the same
+   * time never write to the same temporary file, and ends with {@code .part}, so files left by an
+   * interrupted write can be recognized.
+   *
+   * @param target the file to be written
+   * @return the temporary file, in the same directory and not created yet
+   * @throws IOException if the directory cannot be created
+   */
+  public static Path temporaryFile(Path target) throws IOException {
+    Path directory = target.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    String suffix = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+    return directory.resolve(target.getFileName() + "." + suffix + ".part");
+  }
+
+  /**
+   * Atomically moves a fully written file into place, replacing the target if it exists. Readers
+   * see either the old or the new file, never a mix.
+   *
+   * @param source the written file
+   * @param target the final location
+   * @throws IOException if the file cannot be moved
+   */
+  public static void move(Path source, Path target) throws IOException {
+    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Runs an action holding an exclusive advisory lock on a lock file, which coordinates the threads
+   * of this process as well as other processes using the same file. Threads may take the same lock
+   * again while holding it.
+   *
+   * @param lockPath the lock file, created if needed
+   * @param action the action
+   * @param <T> the result type
+   * @return the result of the action
+   * @throws IOException if the lock cannot be taken or the action fails
+   */
+  public static <T> T withLock(Path lockPath, LockedAction<T> action) throws IOException {
+    Path key = lockPath.toAbsolutePath().normalize();
+    ReentrantLock lock = LOCKS.computeIfAbsent(key, path -> new ReentrantLock());
+    lock.lock();
+    try {
+      if (lock.getHoldCount() > 1) {
+        return action.run();
+      }
+      Files.createDirectories(key.getParent());
+      try (FileChannel channel =
+          FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        FileLock fileLock = channel.lock();
+        try {
+          return action.run();
+        } finally {
+          fileLock.release();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Takes an advisory lock on a lock file and holds it until it is released or the process exits.
+   * Shared locks coexist with each other and exclude an exclusive lock.
+   *
+   * @param lockPath the lock file, created if needed
+   * @param shared whether to take a shared rather than an exclusive lock
+   * @param wait whether to wait for the lock rather than give up at once
+   * @return the lock, or null if it is held elsewhere and {@code wait} is false
+   * @throws IOException if the lock file cannot be opened or locked
+   */
+  public static FileLock lock(Path lockPath, boolean shared, boolean wait) throws IOException {
+    Files.createDirectories(lockPath.toAbsolutePath().getParent());
+    FileChannel channel =
+        FileChannel.open(
+            lockPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      FileLock fileLock =
+          wait
+              ? channel.lock(0, Long.MAX_VALUE, shared)
+              : channel.tryLock(0, Long.MAX_VALUE, shared);
+      if (fileLock == null) {
+        channel.close();
+      }
+      return fileLock;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a buffered stream writing to a file, creating parent directories as needed and replacing
+   * any existing content.
+   *
+   * @param path the file to write
+   * @return the output stream
+   * @throws IOException if the file cannot be opened
+   */
+  public static OutputStream newOutputStream(Path path) throws IOException {
+    Files.createDirectories(path.getParent());
+    return new BufferedOutputStream(Files.newOutputStream(path));
+  }
+
+  /**
+   * Atomically moves a fully written file into place, replacing the target if it exists, and logs
+   * it.
+   *
+   * @param source the written file
+   * @param target the final location
+   * @throws IOException if the file cannot be moved
+   */
+  public static void replace(Path source, Path target) throws IOException {
+    log.info("Writing to \"{}\"", target.toAbsolutePath());
+    move(source, target);
+  }
+
+  /**
+   * Checks whether a file exists and is not empty.
+   *
+   * @param path the file to check
+   * @return true if the file has content
+   */
+  public static boolean hasContent(Path path) {
+    try {
+      return Files.size(path) > 0;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Computes the CRC32C checksum of a file's content.
+   *
+   * @param path the file
+   * @return the checksum
+   * @throws IOException if the file cannot be read
+   */
+  public static long checksum(Path path) throws IOException {
+    CRC32C crc = new CRC32C();
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream in = Files.newInputStream(path)) {
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        crc.update(buffer, 0, read);
+      }
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Computes the CRC32C checksum of a payload held in memory.
+   *
+   * @param payload the payload
+   * @return the checksum
+   */
+  public static long checksum(byte[] payload) {
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    return crc.getValue();
+  }
+
+  /**
+   * An action run while holding a lock.
+   *
+   * @param <T> the result type
+   */
+  @FunctionalInterface
+  public interface LockedAction<T> {
+    /**
+     * Runs the action.
+     *
+     * @return the result
+     * @throws IOException if the action fails
+     */
+    T run() throws IOException;
+  }
+
   public static String getFileContent(Path path) {
     try {
       return Files.readString(path);
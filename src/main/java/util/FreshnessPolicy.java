@@ -0,0 +1,80 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Utility class deciding whether a cached file is stale, from its last-modified time and the TTL of
+ * its {@link ResourceType}. A file's time is reset whenever it is fetched or revalidated, so a
+ * resource is checked with the API at most once per TTL.
+ */
+@Slf4j
+public class FreshnessPolicy {
+
+  /**
+   * Checks whether cached copies of a resource type can expire at all.
+   *
+   * @param resourceType the resource type
+   * @return true if the type has a TTL
+   */
+  public static boolean expires(ResourceType resourceType) {
+    return !resourceType.getTtl().isZero();
+  }
+
+  /**
+   * Checks whether a cached file is older than the TTL of its resource type. Missing files are
+   * stale; files of a type without a TTL never are.
+   *
+   * @param resourceType the resource type
+   * @param filePath the cached file
+   * @return true if the file should be revalidated
+   */
+  public static boolean isStale(ResourceType resourceType, Path filePath) {
+    if (!expires(resourceType)) {
+      return false;
+    }
+
+    try {
+      return isStale(resourceType, Files.getLastModifiedTime(filePath).toInstant());
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Checks whether a cached copy fetched or revalidated at a given time is older than the TTL of
+   * its resource type. Copies of a type without a TTL are never stale.
+   *
+   * @param resourceType the resource type
+   * @param modified when the copy was last fetched or revalidated, or null if it is not cached
+   * @return true if the copy should be revalidated
+   */
+  public static boolean isStale(ResourceType resourceType, Instant modified) {
+    if (!expires(resourceType)) {
+      return false;
+    }
+    if (modified == null) {
+      return true;
+    }
+    Duration age = Duration.between(modified, Instant.now());
+    return age.compareTo(resourceType.getTtl()) > 0;
+  }
+
+  /**
+   * Marks a cached file as fresh after the API confirmed it is unchanged.
+   *
+   * @param filePath the cached file
+   */
+  public static void touch(Path filePath) {
+    try {
+      Files.setLastModifiedTime(filePath, FileTime.from(Instant.now()));
+    } catch (IOException e) {
+      log.warn("Could not update modification time of {}: {}", filePath, e.getMessage());
+    }
+  }
+}
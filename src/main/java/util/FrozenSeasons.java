@@ -0,0 +1,94 @@
+package util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records which leagues' datasets are cached for a completed season and so can never change again.
+ * Incremental refreshes skip frozen datasets entirely. The record is kept as a small JSON file next
+ * to the cached data, mapping each dataset (e.g. "matchups") to its frozen league IDs.
+ */
+@Slf4j
+public class FrozenSeasons {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final Path path;
+  private Map<String, Set<String>> frozen;
+
+  /**
+   * Creates a record backed by the given file, which is read when first needed.
+   *
+   * @param path the file holding the record
+   */
+  public FrozenSeasons(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Checks whether a league's dataset is frozen.
+   *
+   * @param dataset the dataset name
+   * @param leagueId the league identifier
+   * @return true if the dataset is cached for a completed season
+   */
+  public synchronized boolean isFrozen(String dataset, String leagueId) {
+    return load().getOrDefault(dataset, Set.of()).contains(leagueId);
+  }
+
+  /**
+   * Marks a league's dataset as frozen and saves the record.
+   *
+   * @param dataset the dataset name
+   * @param leagueId the league identifier
+   */
+  public synchronized void freeze(String dataset, String leagueId) {
+    if (isFrozen(dataset, leagueId)) {
+      return;
+    }
+    log.info("Season complete, freezing cached {} for league {}", dataset, leagueId);
+    Path lockPath = path.resolveSibling(path.getFileName() + ".lock");
+    try {
+      // Read the record again under the lock, so leagues frozen by other processes are kept
+      FileHelper.withLock(
+          lockPath,
+          () -> {
+            frozen = null;
+            load().computeIfAbsent(dataset, key -> new TreeSet<>()).add(leagueId);
+            FileHelper.write(
+                path, OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(frozen));
+            return null;
+          });
+    } catch (IOException e) {
+      log.warn("Could not save frozen seasons to {}: {}", path, e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the record on first use. A missing or unreadable file means nothing is frozen.
+   *
+   * @return frozen league IDs per dataset
+   */
+  private Map<String, Set<String>> load() {
+    if (frozen == null) {
+      frozen = new TreeMap<>();
+      if (FileHelper.hasContent(path)) {
+        try {
+          frozen.putAll(
+              OBJECT_MAPPER.readValue(
+                  path.toFile(), new TypeReference<TreeMap<String, TreeSet<String>>>() {}));
+        } catch (IOException e) {
+          log.warn("Could not read frozen seasons from {}: {}", path, e.getMessage());
+        }
+      }
+    }
+    return frozen;
+  }
+}
@@ -0,0 +1,73 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+
+/**
+ * Utility class for pretty-printing JSON. Copies tokens straight from a parser to a generator, so
+ * no object tree is built and the content is reproduced exactly apart from whitespace.
+ *
+ * <p>Pretty-printing is a debugging aid only; cached payloads are stored exactly as received unless
+ * {@code sleeper.cache.pretty.print} is enabled.
+ */
+public class JsonFormatter {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /**
+   * Pretty-prints a JSON string.
+   *
+   * @param json the JSON string to format
+   * @return formatted JSON string
+   * @throws IOException if the input is not valid JSON
+   */
+  public static String prettyPrint(String json) throws IOException {
+    StringWriter writer = new StringWriter(json.length() + json.length() / 2);
+    try (JsonParser parser = JSON_FACTORY.createParser(json);
+        JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      copy(parser, generator);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Pretty-prints JSON from one stream to another. Neither stream is closed.
+   *
+   * @param in the JSON to format
+   * @param out receives the formatted JSON
+   * @throws IOException if the input is not valid JSON or cannot be read or written
+   */
+  public static void prettyPrint(InputStream in, OutputStream out) throws IOException {
+    try (JsonParser parser =
+            JSON_FACTORY.createParser(in).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        JsonGenerator generator =
+            JSON_FACTORY.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+      copy(parser, generator);
+    }
+  }
+
+  /**
+   * Copies every token from the parser to the generator using the default pretty printer. Numbers
+   * keep their original text rather than being converted through {@code double}.
+   *
+   * @param parser source of tokens
+   * @param generator destination for tokens
+   * @throws IOException if a token cannot be read or written
+   */
+  private static void copy(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.useDefaultPrettyPrinter();
+    while (parser.nextToken() != null) {
+      if (parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+        generator.writeNumber(parser.getText());
+      } else {
+        generator.copyCurrentEventExact(parser);
+      }
+    }
+  }
+}
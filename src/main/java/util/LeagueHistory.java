@@ -0,0 +1,139 @@
+package util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exception.SleeperApiException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.LeagueDto;
+import service.HttpService;
+import service.SleeperRest;
+
+/**
+ * Utility class that discovers a league's past seasons by following its {@code previous_league_id}
+ * chain, so only the newest league ID has to be configured.
+ *
+ * <p>Each league's users and rosters are requested as soon as its ID is known, while the walk goes
+ * on to the previous season; the responses are kept in the {@link SleeperRest} memo for the rest of
+ * the run. The discovered chain is cached in {@code sleeper_data}, so later startups from the same
+ * league make no network calls. Past seasons never change, so the cache only needs rebuilding when
+ * the starting league changes.
+ */
+@Slf4j
+public class LeagueHistory {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final Path DATA_DIRECTORY = Paths.get("sleeper_data");
+  private static final int MAX_SEASONS = 50;
+
+  /**
+   * Discovers the history of the configured {@code sleeper.league.discover.from} league, if any,
+   * and adds the found league IDs to {@link PropertiesUtil}.
+   *
+   * @throws SleeperApiException if the history is not cached and cannot be fetched
+   */
+  public static void discoverConfiguredHistory() {
+    PropertiesUtil props = PropertiesUtil.getInstance();
+    String startLeagueId = props.getLeagueDiscoveryStartId();
+    if (startLeagueId != null) {
+      props.addDiscoveredLeagueIds(discover(startLeagueId));
+    }
+  }
+
+  /**
+   * Gets the league IDs of a league and all its previous seasons, from the cache if available.
+   *
+   * @param startLeagueId the newest league in the chain
+   * @return league IDs by season year
+   * @throws SleeperApiException if the history is not cached and cannot be fetched
+   */
+  public static Map<Integer, String> discover(String startLeagueId) {
+    Path cachePath = DATA_DIRECTORY.resolve("league_history_" + startLeagueId + ".json");
+    if (FileHelper.hasContent(cachePath)) {
+      try {
+        Map<Integer, String> cached =
+            OBJECT_MAPPER.readValue(
+                cachePath.toFile(), new TypeReference<TreeMap<Integer, String>>() {});
+        log.debug("Using cached league history: {}", cachePath);
+        return cached;
+      } catch (IOException e) {
+        log.warn("Could not read league history {}, rediscovering: {}", cachePath, e.getMessage());
+      }
+    }
+
+    Map<Integer, String> leagueIdsByYear = walk(startLeagueId);
+    try {
+      FileHelper.write(
+          cachePath,
+          OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(leagueIdsByYear));
+    } catch (IOException e) {
+      log.warn("Could not cache league history {}: {}", cachePath, e.getMessage());
+    }
+    return leagueIdsByYear;
+  }
+
+  /**
+   * Follows the {@code previous_league_id} chain from a league, prefetching each league's users and
+   * rosters as soon as it is found.
+   *
+   * @param startLeagueId the newest league in the chain
+   * @return league IDs by season year
+   * @throws SleeperApiException if the starting league cannot be fetched
+   */
+  private static Map<Integer, String> walk(String startLeagueId) {
+    log.info("Discovering league history from league {}", startLeagueId);
+    Map<Integer, String> leagueIdsByYear = new TreeMap<>();
+    Set<String> seen = new HashSet<>();
+
+    String leagueId = startLeagueId;
+    while (leagueId != null && seen.size() < MAX_SEASONS && seen.add(leagueId)) {
+      LeagueDto league;
+      try {
+        league = HttpService.join(SleeperRest.getLeagueAsync(leagueId));
+      } catch (SleeperApiException e) {
+        if (leagueId.equals(startLeagueId)) {
+          throw e;
+        }
+        log.warn("Stopping league history at {}: {}", leagueId, e.getMessage());
+        break;
+      }
+      if (league == null) {
+        log.warn("League {} not found, stopping league history", leagueId);
+        break;
+      }
+
+      // Not awaited: the memo keeps the responses, and a failed prefetch is retried when needed
+      SleeperRest.getUsersAsync(leagueId);
+      SleeperRest.getRostersAsync(leagueId);
+      try {
+        int year = Integer.parseInt(league.getSeason());
+        leagueIdsByYear.putIfAbsent(year, leagueId);
+        log.debug("Discovered league ID for year {}: {}", year, leagueId);
+      } catch (NumberFormatException e) {
+        log.warn("League {} has invalid season '{}', skipping it", leagueId, league.getSeason());
+      }
+
+      leagueId = previousLeagueId(league);
+    }
+
+    log.info("Discovered {} league seasons: {}", leagueIdsByYear.size(), leagueIdsByYear.keySet());
+    return leagueIdsByYear;
+  }
+
+  /**
+   * Gets the ID of the previous season's league.
+   *
+   * @param league the league
+   * @return the previous league ID, or null if this is the first season
+   */
+  private static String previousLeagueId(LeagueDto league) {
+    String previous = league.getPreviousLeagueId();
+    return previous == null || previous.isBlank() || previous.equals("0") ? null : previous;
+  }
+}
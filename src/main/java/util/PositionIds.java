@@ -2,6 +2,7 @@ package util;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import lombok.Getter;
 import model.Player;
 import model.Position;
@@ -14,6 +15,9 @@ import model.Position;
  */
 @Getter
 public class PositionIds {
+  private static Map<String, Player> cachedPlayers;
+  private static PositionIds cachedIds;
+
   private final List<String> runningBackIds;
   private final List<String> quarterBackIds;
   private final List<String> wideReceiverIds;
@@ -44,6 +48,21 @@ public class PositionIds {
         Player.getPlayerIdsByPosition(players, Position.TE));
   }
 
+  /**
+   * Gets the position IDs for a players map, reusing the result while the same map is passed, so
+   * every analysis and every league of a batch run extracts them only once.
+   *
+   * @param nflPlayers map of NFL players
+   * @return PositionIds containing lists of player IDs for each position
+   */
+  public static synchronized PositionIds forPlayers(Map<String, Player> nflPlayers) {
+    if (cachedPlayers != nflPlayers) {
+      cachedIds = from(nflPlayers.values());
+      cachedPlayers = nflPlayers;
+    }
+    return cachedIds;
+  }
+
   /**
    * Get player IDs for a specific position.
    *
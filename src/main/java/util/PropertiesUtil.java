@@ -10,19 +10,36 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Utility class for loading and accessing application properties. Loads properties from
  * application.properties file in the classpath. Dynamically discovers all league years from
- * properties matching the pattern "sleeper.league.id.YYYY".
+ * properties matching the pattern "sleeper.league.id.YYYY". Any "sleeper.*" property can be
+ * overridden with a JVM system property of the same name.
+ *
+ * <p>League IDs can instead be discovered from a single league with "sleeper.league.discover.from";
+ * see {@link LeagueHistory}.
  */
 @Slf4j
 @Getter
 public class PropertiesUtil {
   private static final String PROPERTIES_FILE = "application.properties";
+  private static final String PROPERTY_PREFIX = "sleeper.";
   private static final String LEAGUE_ID_PREFIX = "sleeper.league.id.";
   private static final PropertiesUtil INSTANCE = new PropertiesUtil();
 
   private final String sleeperApiBaseUrl;
+  private final int fetchConcurrency;
+  private final int requestsPerMinute;
+  private final int maxRetries;
+  private final int retryBaseDelayMs;
+  private final boolean cachePrettyPrint;
+  private final CacheFormat cacheFormat;
+  private final boolean cacheCompress;
+  private final int playersTtlMinutes;
+  private final int matchupsTtlMinutes;
+  private final int transactionsTtlMinutes;
+  private final int memoMaxEntries;
+  private final String leagueDiscoveryStartId;
   private final Map<Integer, String> leagueIdsByYear;
-  private final List<Integer> availableYears;
-  private final List<String> allLeagueIds;
+  private volatile List<Integer> availableYears;
+  private volatile List<String> allLeagueIds;
 
   /**
    * Private constructor that loads and initializes all properties. This is called once when the
@@ -33,6 +50,21 @@ public class PropertiesUtil {
     Properties properties = loadProperties();
 
     this.sleeperApiBaseUrl = getRequiredProperty(properties, "sleeper.api.base.url");
+    this.fetchConcurrency = getIntProperty(properties, "sleeper.fetch.concurrency", 8, 1);
+    this.requestsPerMinute = getIntProperty(properties, "sleeper.api.requests.per.minute", 600, 1);
+    this.maxRetries = getIntProperty(properties, "sleeper.api.max.retries", 4, 0);
+    this.retryBaseDelayMs = getIntProperty(properties, "sleeper.api.retry.base.delay.ms", 500, 1);
+    this.cachePrettyPrint = getBooleanProperty(properties, "sleeper.cache.pretty.print", false);
+    this.cacheFormat =
+        getCacheFormatProperty(properties, "sleeper.cache.format", CacheFormat.BINARY);
+    this.cacheCompress = getBooleanProperty(properties, "sleeper.cache.compress", false);
+    this.playersTtlMinutes = getIntProperty(properties, "sleeper.cache.ttl.players.minutes", 0, 0);
+    this.matchupsTtlMinutes =
+        getIntProperty(properties, "sleeper.cache.ttl.matchups.minutes", 0, 0);
+    this.transactionsTtlMinutes =
+        getIntProperty(properties, "sleeper.cache.ttl.transactions.minutes", 0, 0);
+    this.memoMaxEntries = getIntProperty(properties, "sleeper.api.memo.max.entries", 256, 1);
+    this.leagueDiscoveryStartId = getOptionalProperty(properties, "sleeper.league.discover.from");
     this.leagueIdsByYear = new TreeMap<>(); // TreeMap for sorted years
 
     // Dynamically discover all league IDs from properties
@@ -50,7 +82,7 @@ public class PropertiesUtil {
       }
     }
 
-    if (leagueIdsByYear.isEmpty()) {
+    if (leagueIdsByYear.isEmpty() && leagueDiscoveryStartId == null) {
       throw new RuntimeException("No league IDs found in properties file");
     }
 
@@ -72,6 +104,19 @@ public class PropertiesUtil {
     return INSTANCE;
   }
 
+  /**
+   * Adds league IDs found by walking a league's history. League IDs configured explicitly for a
+   * year take precedence over discovered ones.
+   *
+   * @param discovered league IDs by year
+   */
+  public synchronized void addDiscoveredLeagueIds(Map<Integer, String> discovered) {
+    discovered.forEach(leagueIdsByYear::putIfAbsent);
+    this.availableYears = List.copyOf(leagueIdsByYear.keySet());
+    this.allLeagueIds = List.copyOf(leagueIdsByYear.values());
+    log.info("League years after discovery: {}", availableYears);
+  }
+
   /**
    * Gets the league ID for a specific year.
    *
@@ -79,7 +124,7 @@ public class PropertiesUtil {
    * @return the league ID for the specified year
    * @throws IllegalArgumentException if the year is not configured
    */
-  public String getLeagueIdByYear(int year) {
+  public synchronized String getLeagueIdByYear(int year) {
     String leagueId = leagueIdsByYear.get(year);
     if (leagueId == null) {
       throw new IllegalArgumentException(
@@ -123,7 +168,7 @@ public class PropertiesUtil {
    * @param year the year to check
    * @return true if the year is configured, false otherwise
    */
-  public boolean hasYear(int year) {
+  public synchronized boolean hasYear(int year) {
     return leagueIdsByYear.containsKey(year);
   }
 
@@ -147,6 +192,14 @@ public class PropertiesUtil {
       properties.load(input);
       log.info("Successfully loaded properties from {}", PROPERTIES_FILE);
 
+      // System properties win, e.g. -Dsleeper.api.base.url=http://localhost:8089/v1
+      for (String key : System.getProperties().stringPropertyNames()) {
+        if (key.startsWith(PROPERTY_PREFIX)) {
+          properties.setProperty(key, System.getProperty(key));
+          log.info("Property '{}' overridden by system property", key);
+        }
+      }
+
     } catch (IOException e) {
       log.error("Error loading properties from {}", PROPERTIES_FILE, e);
       throw new RuntimeException("Error loading properties file", e);
@@ -171,4 +224,92 @@ public class PropertiesUtil {
     }
     return value.trim();
   }
+
+  /**
+   * Gets an optional string property.
+   *
+   * @param properties the Properties object to read from
+   * @param key the property key
+   * @return the trimmed property value, or null if not set
+   */
+  private String getOptionalProperty(Properties properties, String key) {
+    String value = properties.getProperty(key);
+    return value == null || value.trim().isEmpty() ? null : value.trim();
+  }
+
+  /**
+   * Gets an optional integer property, falling back to a default when it is absent.
+   *
+   * @param properties the Properties object to read from
+   * @param key the property key
+   * @param defaultValue the value to use when the property is not set
+   * @param minValue the smallest allowed value
+   * @return the property value, or the default if not set
+   * @throws RuntimeException if the property is set but is not an integer of at least minValue
+   */
+  private int getIntProperty(Properties properties, String key, int defaultValue, int minValue) {
+    String value = properties.getProperty(key);
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+
+    try {
+      int parsed = Integer.parseInt(value.trim());
+      if (parsed < minValue) {
+        throw new NumberFormatException("must be at least " + minValue);
+      }
+      return parsed;
+    } catch (NumberFormatException e) {
+      log.error("Property '{}' must be an integer >= {} but was '{}'", key, minValue, value);
+      throw new RuntimeException(
+          "Property '" + key + "' must be an integer of at least " + minValue, e);
+    }
+  }
+
+  /**
+   * Gets an optional boolean property, falling back to a default when it is absent.
+   *
+   * @param properties the Properties object to read from
+   * @param key the property key
+   * @param defaultValue the value to use when the property is not set
+   * @return the property value, or the default if not set
+   * @throws RuntimeException if the property is set but is not "true" or "false"
+   */
+  private boolean getBooleanProperty(Properties properties, String key, boolean defaultValue) {
+    String value = properties.getProperty(key);
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+
+    String trimmed = value.trim().toLowerCase();
+    if (!trimmed.equals("true") && !trimmed.equals("false")) {
+      log.error("Property '{}' must be true or false but was '{}'", key, value);
+      throw new RuntimeException("Property '" + key + "' must be true or false");
+    }
+    return Boolean.parseBoolean(trimmed);
+  }
+
+  /**
+   * Gets an optional cache format property, falling back to a default when it is absent.
+   *
+   * @param properties the Properties object to read from
+   * @param key the property key
+   * @param defaultValue the value to use when the property is not set
+   * @return the property value, or the default if not set
+   * @throws RuntimeException if the property is set but is not a known format
+   */
+  private CacheFormat getCacheFormatProperty(
+      Properties properties, String key, CacheFormat defaultValue) {
+    String value = getOptionalProperty(properties, key);
+    if (value == null) {
+      return defaultValue;
+    }
+
+    try {
+      return CacheFormat.fromName(value);
+    } catch (IllegalArgumentException e) {
+      log.error("Property '{}' must be json or binary but was '{}'", key, value);
+      throw new RuntimeException("Property '" + key + "' must be json or binary", e);
+    }
+  }
 }
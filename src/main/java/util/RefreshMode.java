@@ -0,0 +1,19 @@
+package util;
+
+/** How cached Sleeper data is refreshed from the API. */
+public enum RefreshMode {
+  /**
+   * Use cached data, fetching what has never been cached and revalidating data that can still
+   * change once it is older than its {@link ResourceType} TTL.
+   */
+  CACHED,
+
+  /**
+   * Revalidate only data that can still change: the NFL players and the weeks of the current season
+   * that are in progress or upcoming. Seasons that are complete are frozen in the cache.
+   */
+  INCREMENTAL,
+
+  /** Revalidate all data, including frozen seasons. */
+  FULL
+}
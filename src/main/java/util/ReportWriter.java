@@ -4,7 +4,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -14,8 +13,6 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ReportWriter {
 
-  private static final Path REPORTS_DIRECTORY = Paths.get("output", "reports");
-
   // Jackson ObjectMapper for JSON serialization
   private static final ObjectMapper OBJECT_MAPPER =
       new ObjectMapper()
@@ -26,13 +23,15 @@ public class ReportWriter {
    * Write a report object to a JSON file in a timestamped directory.
    *
    * @param report the report object to serialize
+   * @param reportsDirectory directory all reports of the run are written to
    * @param reportType the type of report (e.g., "trades", "matchups", "waivers")
    * @param fileName the name of the JSON file (e.g., "trade_report.json")
    */
-  public static void writeReport(Object report, String reportType, String fileName) {
+  public static void writeReport(
+      Object report, Path reportsDirectory, String reportType, String fileName) {
     try {
       // Create timestamped directory for this report
-      Path reportDir = REPORTS_DIRECTORY.resolve(reportType);
+      Path reportDir = reportsDirectory.resolve(reportType);
 
       // Serialize report to JSON
       String json = OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report);
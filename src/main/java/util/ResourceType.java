@@ -0,0 +1,39 @@
+package util;
+
+import java.time.Duration;
+
+/**
+ * Kinds of Sleeper data cached on disk, each with its own freshness TTL from {@code
+ * sleeper.cache.ttl.<name>.minutes}.
+ */
+public enum ResourceType {
+  PLAYERS("players", PropertiesUtil.getInstance().getPlayersTtlMinutes()),
+  MATCHUPS("matchups", PropertiesUtil.getInstance().getMatchupsTtlMinutes()),
+  TRANSACTIONS("transactions", PropertiesUtil.getInstance().getTransactionsTtlMinutes());
+
+  private final String name;
+  private final Duration ttl;
+
+  ResourceType(String name, int ttlMinutes) {
+    this.name = name;
+    this.ttl = Duration.ofMinutes(ttlMinutes);
+  }
+
+  /**
+   * Gets the name used in property keys and cache bookkeeping.
+   *
+   * @return the resource name, e.g. "matchups"
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets how long a cached copy stays fresh on a normal run.
+   *
+   * @return the TTL, or zero if cached copies never expire
+   */
+  public Duration getTtl() {
+    return ttl;
+  }
+}
@@ -0,0 +1,101 @@
+package util;
+
+import exception.SleeperApiException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetch engine that loads league/round pairs concurrently on a bounded thread pool.
+ *
+ * <p>Each round is loaded independently, so a failure in one round never affects the others.
+ * Results are always returned in the order the rounds were requested, regardless of which request
+ * finishes first.
+ */
+@Slf4j
+public class RoundFetcher {
+
+  /**
+   * Identifies a single round of a single league.
+   *
+   * @param leagueId the league identifier
+   * @param round the round/week number
+   */
+  public record RoundKey(String leagueId, int round) {}
+
+  /**
+   * Loads every requested round with at most {@code concurrency} rounds in flight at once.
+   *
+   * @param keys the league/round pairs to load, in the order results should be returned
+   * @param concurrency maximum number of rounds loaded at the same time
+   * @param roundLoader function that loads a single round; should handle its own errors
+   * @param <T> item type returned for each round
+   * @return all loaded items, ordered by the position of their round in {@code keys}
+   * @throws SleeperApiException if the calling thread is interrupted while waiting
+   */
+  public static <T> List<T> fetchAll(
+      List<RoundKey> keys, int concurrency, Function<RoundKey, List<T>> roundLoader) {
+
+    if (keys.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    int poolSize = Math.min(concurrency, keys.size());
+    log.debug("Fetching {} rounds with {} worker threads", keys.size(), poolSize);
+    ExecutorService executor = Executors.newFixedThreadPool(poolSize, newThreadFactory());
+
+    try {
+      List<Future<List<T>>> futures = new ArrayList<>(keys.size());
+      for (RoundKey key : keys) {
+        futures.add(executor.submit(() -> roundLoader.apply(key)));
+      }
+
+      // Collect in submission order so the result is deterministic
+      List<T> results = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        RoundKey key = keys.get(i);
+        try {
+          results.addAll(futures.get(i).get());
+        } catch (ExecutionException e) {
+          log.error(
+              "Unexpected error fetching data for league={}, round={}: {}",
+              key.leagueId(),
+              key.round(),
+              e.getCause().getMessage(),
+              e.getCause());
+          // Continue with other rounds/leagues
+        }
+      }
+      return results;
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error("Interrupted while fetching rounds");
+      throw new SleeperApiException("Round fetch interrupted", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Creates a thread factory producing named daemon threads, so an abandoned fetch never keeps the
+   * JVM alive.
+   *
+   * @return thread factory for fetch workers
+   */
+  private static ThreadFactory newThreadFactory() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "round-fetcher-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,1108 @@
+package util;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import service.CacheValidators;
+
+/**
+ * Append-only store for the per-round payloads of a dataset (matchups or transactions), with one
+ * data file and one index per league season instead of one file per round.
+ *
+ * <p>A segment's data file {@code <dataset>/<league id>.seg} holds the encoded payloads back to
+ * back; its index {@code <dataset>/<league id>.idx} maps each round to the offset and length of its
+ * latest payload, along with its encoding, fetch time, checksum, record count and HTTP validators,
+ * so rounds are planned without reading any payload and known-empty rounds are never read at all. A
+ * segment is opened once and any round is then read with a single positioned read.
+ *
+ * <p>Appended rounds are written behind by a {@link CacheWriter}: they are readable from memory at
+ * once and written to the data file in batches, one write per batch. Existing data is never
+ * overwritten and the index is only rewritten by {@link #flush()}, atomically and after the data it
+ * points to, so a crash at any point leaves the previous, still valid index in place. Payloads
+ * superseded by refreshes stay in the data file until the segment is compacted.
+ *
+ * <p>Several processes may share the cache. Each segment has a lock file {@code <dataset>/<league
+ * id>.lock} held while appending to the data file, always at its current end, and while writing the
+ * index, which is merged with the index on disk so rounds stored by other processes are kept. A
+ * process that only serves the cache opens it with {@link #openReadOnly(Path)} instead, which never
+ * writes and picks up index changes made by the others.
+ */
+@Slf4j
+public class SegmentStore implements Closeable {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final JavaType JSON_NODE = OBJECT_MAPPER.constructType(JsonNode.class);
+
+  // Offset of a round that is still queued for writing
+  private static final long UNWRITTEN = -1;
+
+  private final Path directory;
+  private final CacheWriter writer;
+  private final boolean readOnly;
+  private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a store for segments below a directory, with its own background writer.
+   *
+   * @param directory the cache directory, e.g. {@code sleeper_data}
+   */
+  public SegmentStore(Path directory) {
+    this(directory, new CacheWriter());
+  }
+
+  /**
+   * Creates a store for segments below a directory.
+   *
+   * @param directory the cache directory, e.g. {@code sleeper_data}
+   * @param writer the background writer persisting appended rounds
+   */
+  public SegmentStore(Path directory, CacheWriter writer) {
+    this.directory = directory;
+    this.writer = writer;
+    this.readOnly = writer == null;
+  }
+
+  /**
+   * Opens a store that only reads segments, e.g. to serve a cache that other processes append to.
+   * It has no background writer and never writes a data file or index. A segment is reopened when
+   * its index has been rewritten since it was read, so rounds stored in the meantime are seen.
+   *
+   * @param directory the cache directory, e.g. {@code sleeper_data}
+   * @return the store
+   */
+  public static SegmentStore openReadOnly(Path directory) {
+    return new SegmentStore(directory, null);
+  }
+
+  /**
+   * Gets the segment of a league season, opening it on first use. A read-only store reopens it if
+   * its index was rewritten since.
+   *
+   * @param dataset the dataset, e.g. "matchups"
+   * @param leagueId the league identifier
+   * @return the segment
+   * @throws IOException if an existing segment cannot be opened
+   */
+  public Segment segment(String dataset, String leagueId) throws IOException {
+    String key = dataset + "/" + leagueId;
+    Segment segment = segments.get(key);
+    if (segment != null && (!readOnly || segment.isCurrent())) {
+      return segment;
+    }
+    synchronized (segments) {
+      segment = segments.get(key);
+      if (segment == null || (readOnly && !segment.isCurrent())) {
+        segment = new Segment(directory.resolve(dataset), leagueId, writer);
+        segments.put(key, segment);
+      }
+      return segment;
+    }
+  }
+
+  /**
+   * Queues writing the index of every segment changed since it was opened or last flushed, behind
+   * the rounds already appended. Returns without waiting; {@link CacheWriter#flush()} waits.
+   */
+  public void flush() {
+    if (readOnly) {
+      return;
+    }
+    writer.submit(
+        "segment indexes",
+        () -> {
+          for (Segment segment : segments.values()) {
+            segment.writeIndex();
+          }
+        });
+  }
+
+  /**
+   * Compacts every segment of a dataset (see {@link Segment#compact()}) and deletes data files that
+   * have no index and temporary files left by interrupted writes. Runs on the background writer,
+   * behind every write queued so far, and waits for it.
+   *
+   * @param dataset the dataset, e.g. "matchups"
+   * @return bytes reclaimed
+   * @throws IOException if a segment cannot be compacted or a file cannot be deleted
+   * @throws IllegalStateException if the store is read-only
+   */
+  public long compact(String dataset) throws IOException {
+    if (readOnly) {
+      throw new IllegalStateException("Cannot compact read-only segments in " + directory);
+    }
+    Path datasetDirectory = directory.resolve(dataset);
+    if (!Files.isDirectory(datasetDirectory)) {
+      return 0;
+    }
+
+    AtomicLong reclaimed = new AtomicLong();
+    AtomicReference<IOException> failure = new AtomicReference<>();
+    writer.submit(
+        "compaction of " + datasetDirectory,
+        () -> {
+          try {
+            reclaimed.addAndGet(compactNow(dataset, datasetDirectory));
+          } catch (IOException e) {
+            failure.set(e);
+            throw e;
+          }
+        });
+    writer.flush();
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return reclaimed.get();
+  }
+
+  /**
+   * Compacts the segments of a dataset and deletes unreferenced files, on the background writer.
+   *
+   * @param dataset the dataset
+   * @param datasetDirectory directory of the dataset
+   * @return bytes reclaimed
+   * @throws IOException if a segment cannot be compacted or a file cannot be deleted
+   */
+  private long compactNow(String dataset, Path datasetDirectory) throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(datasetDirectory)) {
+      stream.forEach(files::add);
+    }
+
+    long reclaimed = 0;
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      if (name.endsWith(".idx")) {
+        String leagueId = name.substring(0, name.length() - ".idx".length());
+        reclaimed += segment(dataset, leagueId).compact();
+      } else if (name.endsWith(".part")
+          || (name.endsWith(".seg")
+              && !files.contains(file.resolveSibling(name.replace(".seg", ".idx"))))) {
+        long fileSize = Files.size(file);
+        Files.delete(file);
+        log.info("Deleted unreferenced cache file {}", file);
+        reclaimed += fileSize;
+      }
+    }
+    return reclaimed;
+  }
+
+  /**
+   * Writes every queued round and changed index, and closes every open segment.
+   *
+   * @throws IOException if a data file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (segments) {
+      if (!readOnly) {
+        flush();
+        writer.flush();
+      }
+      IOException failure = null;
+      for (Segment segment : segments.values()) {
+        try {
+          segment.close();
+        } catch (IOException e) {
+          failure = failure == null ? e : failure;
+        }
+      }
+      segments.clear();
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Location and metadata of one round's payload in a segment.
+   *
+   * @param offset position of the payload in the data file
+   * @param length size of the payload in bytes
+   * @param format format of the payload
+   * @param compressed whether the payload is gzip-compressed
+   * @param modified when the payload was last fetched or revalidated, in epoch milliseconds
+   * @param checksum CRC32C of the payload, or null if unknown
+   * @param records number of records in the payload, or null if unknown
+   * @param validators HTTP validators of the payload
+   */
+  public record Entry(
+      long offset,
+      int length,
+      CacheFormat format,
+      boolean compressed,
+      long modified,
+      Long checksum,
+      Integer records,
+      CacheValidators validators) {
+
+    /**
+     * Checks whether the round is known to hold no records, so it need not be read.
+     *
+     * @return true if the payload is an empty list
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+      return records != null && records == 0;
+    }
+
+    /**
+     * Gets the encoding the payload is stored in.
+     *
+     * @return the encoding
+     */
+    public CacheEncoding encoding() {
+      return new CacheEncoding(format, compressed);
+    }
+
+    /**
+     * Gets when the payload was last fetched or revalidated.
+     *
+     * @return the fetch time
+     */
+    public Instant modifiedTime() {
+      return Instant.ofEpochMilli(modified);
+    }
+
+    /**
+     * Gets this entry at the offset its payload was written to.
+     *
+     * @param writtenOffset position of the payload in the data file
+     * @return the entry
+     */
+    private Entry at(long writtenOffset) {
+      return new Entry(
+          writtenOffset, length, format, compressed, modified, checksum, records, validators);
+    }
+  }
+
+  /**
+   * Serialized form of a segment index.
+   *
+   * @param legacyImported whether per-round cache files of the league have been imported
+   * @param rounds entry of each round
+   */
+  private record Index(boolean legacyImported, TreeMap<Integer, Entry> rounds) {}
+
+  /**
+   * A round appended to a segment but not written yet.
+   *
+   * @param round the round/week number
+   * @param payload the encoded payload
+   * @param entry its entry, with an {@link #UNWRITTEN} offset
+   */
+  private record Pending(int round, byte[] payload, Entry entry) {}
+
+  /**
+   * The data file and index of one league season.
+   *
+   * <p>Locks are taken in the order {@code indexLock}, segment, lock file, {@code writeLock},
+   * {@code channelLock}. The segment monitor only guards the in-memory index and is never held
+   * across I/O or the lock file, except by compaction, which has the cache to itself, so fetch
+   * threads appending rounds never wait for a write in progress.
+   */
+  public static class Segment implements Closeable {
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final Path lockPath;
+    private final String leagueId;
+    private final CacheWriter writer;
+    private final boolean readOnly;
+    // Modification time of the index when it was read, or null if there was none
+    private final FileTime indexModified;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    // Rounds stored or touched by this process since the index was last written
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private final List<Pending> queue = new ArrayList<>();
+    private final Object indexLock = new Object();
+    private final Object writeLock = new Object();
+    private final Object channelLock = new Object();
+    private volatile FileChannel channel;
+    private boolean legacyImported;
+    private boolean dirty;
+
+    /**
+     * Opens a segment, reading its index if it exists.
+     *
+     * @param datasetDirectory directory of the dataset
+     * @param leagueId the league identifier
+     * @param writer the background writer persisting appended rounds, or null if the segment is
+     *     read-only
+     * @throws IOException if an existing index cannot be read
+     */
+    private Segment(Path datasetDirectory, String leagueId, CacheWriter writer) throws IOException {
+      this.dataPath = datasetDirectory.resolve(leagueId + ".seg");
+      this.indexPath = datasetDirectory.resolve(leagueId + ".idx");
+      this.lockPath = datasetDirectory.resolve(leagueId + ".lock");
+      this.leagueId = leagueId;
+      this.writer = writer;
+      this.readOnly = writer == null;
+      this.indexModified = lastModified(indexPath);
+      if (indexModified == null) {
+        return;
+      }
+
+      Index index = OBJECT_MAPPER.readValue(indexPath.toFile(), Index.class);
+      long dataSize = Files.exists(dataPath) ? Files.size(dataPath) : 0;
+      legacyImported = index.legacyImported();
+      if (index.rounds() != null) {
+        index
+            .rounds()
+            .forEach(
+                (round, entry) -> {
+                  if (entry.offset() + entry.length() <= dataSize) {
+                    entries.put(round, entry);
+                  } else {
+                    log.warn("Dropping round {} beyond the end of {}", round, dataPath);
+                    dirty = true;
+                  }
+                });
+      }
+    }
+
+    /**
+     * Gets the entry of a round, including rounds still queued for writing.
+     *
+     * @param round the round/week number
+     * @return the entry, or null if the round has not been stored
+     */
+    public Entry get(int round) {
+      Pending queued = pending.get(round);
+      return queued != null ? queued.entry() : entries.get(round);
+    }
+
+    /**
+     * Reads the stored payload of an entry with one positioned read.
+     *
+     * @param entry the entry of the round, which must have been written
+     * @return the encoded payload
+     * @throws IOException if the data file cannot be read
+     */
+    public byte[] read(Entry entry) throws IOException {
+      if (readOnly) {
+        // Opened per read, since the segment may be reopened and dropped at any time
+        try (FileChannel readChannel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+          return read(readChannel, entry);
+        }
+      }
+      return read(channel(), entry);
+    }
+
+    /**
+     * Reads the stored payload of an entry from a channel over the data file.
+     *
+     * @param readChannel channel over the data file
+     * @param entry the entry of the round
+     * @return the encoded payload
+     * @throws IOException if the data file cannot be read
+     */
+    private byte[] read(FileChannel readChannel, Entry entry) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+      while (buffer.hasRemaining()) {
+        if (readChannel.read(buffer, entry.offset() + buffer.position()) == -1) {
+          throw new IOException("Truncated segment " + dataPath);
+        }
+      }
+      return buffer.array();
+    }
+
+    /**
+     * Reads the stored payload of a round, checking it against the checksum in the index. Rounds
+     * still queued for writing are read from memory.
+     *
+     * @param round the round/week number
+     * @param entry the entry of the round
+     * @return the encoded payload, or null if it is corrupt or was never written
+     * @throws IOException if the data file cannot be read
+     */
+    public byte[] readVerified(int round, Entry entry) throws IOException {
+      if (entry.offset() == UNWRITTEN) {
+        Entry written;
+        synchronized (this) {
+          Pending queued = pending.get(round);
+          if (queued != null) {
+            return queued.payload();
+          }
+          written = entries.get(round);
+        }
+        // Written in the meantime, unless its batch failed and the index still holds an older
+        // payload of the round or none at all
+        if (written == null
+            || written.offset() == UNWRITTEN
+            || written.length() != entry.length()
+            || !written.encoding().equals(entry.encoding())
+            || !Objects.equals(written.checksum(), entry.checksum())) {
+          log.debug("Round {} of {} was not written, fetching it again", round, dataPath);
+          return null;
+        }
+        entry = written;
+      }
+
+      byte[] payload = read(entry);
+      if (entry.checksum() != null && entry.checksum() != FileHelper.checksum(payload)) {
+        log.warn("Cached round {} in {} is corrupt", round, dataPath);
+        return null;
+      }
+      return payload;
+    }
+
+    /**
+     * Opens a stream over the decoded payload of an entry.
+     *
+     * @param entry the entry of the round, which must have been written
+     * @return the payload in the entry's format, decompressed
+     * @throws IOException if the data file cannot be read
+     */
+    public InputStream newInputStream(Entry entry) throws IOException {
+      return entry.encoding().newInputStream(read(entry));
+    }
+
+    /**
+     * Appends a round's payload and points the index at it. The payload is readable at once and
+     * written to the data file in the background. Payloads are stored once per segment: a payload
+     * identical to one already written, such as an unchanged refetch or another empty round, is
+     * pointed at the stored copy by the writer instead of being appended again, so fetch threads
+     * never read the data file to compare payloads.
+     *
+     * @param round the round/week number
+     * @param payload the encoded payload
+     * @param encoding the encoding of the payload
+     * @param validators HTTP validators of the payload
+     * @param modified when the payload was fetched
+     * @param records number of records in the payload
+     */
+    public synchronized void append(
+        int round,
+        byte[] payload,
+        CacheEncoding encoding,
+        CacheValidators validators,
+        Instant modified,
+        int records) {
+      checkWritable();
+      Pending queued = pending(round, payload, encoding, validators, modified, records);
+      Entry current = get(round);
+      if (current != null
+          && current.length() == payload.length
+          && current.encoding().equals(encoding)
+          && queued.entry().checksum().equals(current.checksum())) {
+        // Same payload, e.g. fetched by another chain sharing the league
+        if (current.offset() != UNWRITTEN) {
+          entries.put(round, queued.entry().at(current.offset()));
+          changed.add(round);
+          dirty = true;
+        }
+        return;
+      }
+      pending.put(round, queued);
+      queue.add(queued);
+      if (queue.size() == 1) {
+        writer.submit(dataPath.toString(), this::writeQueued);
+      }
+    }
+
+    /**
+     * Finds where a payload is stored already: earlier in the batch being written or in the data
+     * file, compared by checksum and then byte by byte. Runs on the background writer.
+     *
+     * @param queued the round to be written
+     * @param batch the batch being written
+     * @param written entries of the rounds of the batch resolved so far
+     * @return offset of the stored copy, or null if there is none
+     */
+    private Long findStored(Pending queued, List<Pending> batch, List<Entry> written) {
+      Entry entry = queued.entry();
+      for (int i = 0; i < written.size(); i++) {
+        if (isSamePayload(entry, batch.get(i).entry())
+            && Arrays.equals(batch.get(i).payload(), queued.payload())) {
+          return written.get(i).offset();
+        }
+      }
+      for (Entry candidate : entries.values()) {
+        if (candidate.offset() != UNWRITTEN && isSamePayload(entry, candidate)) {
+          try {
+            if (Arrays.equals(read(candidate), queued.payload())) {
+              return candidate.offset();
+            }
+          } catch (IOException e) {
+            log.debug("Could not compare with round in {}: {}", dataPath, e.getMessage());
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Checks whether two entries may hold the same payload, by length, encoding and checksum.
+     *
+     * @param entry entry of a payload with a checksum
+     * @param candidate entry of a payload to compare with
+     * @return true if the payloads are worth comparing byte by byte
+     */
+    private static boolean isSamePayload(Entry entry, Entry candidate) {
+      return candidate.length() == entry.length()
+          && candidate.encoding().equals(entry.encoding())
+          && entry.checksum().equals(candidate.checksum());
+    }
+
+    /**
+     * Rewrites the data file with only the payloads the index points to, once each, dropping
+     * payloads that were superseded by newer ones. Payloads that fail their checksum are dropped
+     * with their rounds, which are fetched again by the next run. Must run on the background
+     * writer, so no batch is written meanwhile; rounds still queued are written first.
+     *
+     * <p>The new data file is written next to the old one and moved into place before the index. A
+     * crash between the two moves leaves the old index pointing into the new file; the checksums
+     * then reject the misplaced rounds, which are fetched again. No other process may use the cache
+     * meanwhile, since its open data file would still be the old one.
+     *
+     * @return bytes reclaimed
+     * @throws IOException if the segment cannot be read or written
+     */
+    public long compact() throws IOException {
+      checkWritable();
+      synchronized (indexLock) {
+        synchronized (this) {
+          return compactLocked();
+        }
+      }
+    }
+
+    /**
+     * Compacts the segment while holding the index lock and the segment monitor.
+     *
+     * @return bytes reclaimed
+     * @throws IOException if the segment cannot be read or written
+     */
+    private long compactLocked() throws IOException {
+      write(new ArrayList<>(queue));
+      queue.clear();
+      long oldSize = Files.exists(dataPath) ? Files.size(dataPath) : 0;
+
+      // Each distinct payload once, in file order
+      TreeMap<Long, Entry> stored = new TreeMap<>();
+      entries.values().forEach(entry -> stored.putIfAbsent(entry.offset(), entry));
+      Map<Long, Long> moved = new HashMap<>();
+      Map<Long, Long> storedByChecksum = new HashMap<>();
+      Map<Long, byte[]> payloads = new HashMap<>();
+      long newSize = 0;
+      for (Entry entry : stored.values()) {
+        byte[] payload = read(entry);
+        if (entry.checksum() != null && entry.checksum() != FileHelper.checksum(payload)) {
+          log.warn("Dropping corrupt payload at {} in {}", entry.offset(), dataPath);
+          continue;
+        }
+        Long duplicate = entry.checksum() != null ? storedByChecksum.get(entry.checksum()) : null;
+        if (duplicate != null && Arrays.equals(payloads.get(duplicate), payload)) {
+          moved.put(entry.offset(), duplicate);
+          continue;
+        }
+        moved.put(entry.offset(), newSize);
+        payloads.put(newSize, payload);
+        if (entry.checksum() != null) {
+          storedByChecksum.putIfAbsent(entry.checksum(), newSize);
+        }
+        newSize += payload.length;
+      }
+      if (newSize == oldSize && moved.size() == payloads.size()) {
+        return 0;
+      }
+
+      Path partPath = FileHelper.temporaryFile(dataPath);
+      try (FileChannel out =
+          FileChannel.open(partPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        for (byte[] payload : new TreeMap<>(payloads).values()) {
+          ByteBuffer buffer = ByteBuffer.wrap(payload);
+          while (buffer.hasRemaining()) {
+            out.write(buffer);
+          }
+        }
+        out.force(false);
+      } catch (IOException e) {
+        Files.deleteIfExists(partPath);
+        throw e;
+      }
+
+      synchronized (writeLock) {
+        close();
+        FileHelper.move(partPath, dataPath);
+        entries.values().removeIf(entry -> !moved.containsKey(entry.offset()));
+        entries.replaceAll((round, entry) -> entry.at(moved.get(entry.offset())));
+        dirty = true;
+      }
+      // Every offset moved, so the index on disk must be replaced rather than merged
+      writeIndex(false);
+      log.info("Compacted {} from {} to {} bytes", dataPath, oldSize, newSize);
+      return oldSize - newSize;
+    }
+
+    /**
+     * Marks a round as fresh after the API confirmed it is unchanged.
+     *
+     * @param round the round/week number
+     */
+    public synchronized void touch(int round) {
+      checkWritable();
+      Entry entry = entries.get(round);
+      if (entry != null) {
+        entries.put(
+            round,
+            new Entry(
+                entry.offset(),
+                entry.length(),
+                entry.format(),
+                entry.compressed(),
+                System.currentTimeMillis(),
+                entry.checksum(),
+                entry.records(),
+                entry.validators()));
+        changed.add(round);
+        dirty = true;
+      }
+    }
+
+    /**
+     * Imports the league's rounds cached as separate files by earlier versions, deleting them once
+     * stored. Only done once per segment; rounds already in the segment are kept. Unlike fetched
+     * rounds, imported rounds are written and indexed before this returns, since their files are
+     * deleted. Files imported by another process sharing the cache at the same time are skipped.
+     *
+     * @param dataDirectory the cache directory
+     * @param filePathPattern pattern of the per-round files without extension, e.g. {@code
+     *     matchups/matchup_%s_%s}
+     * @throws IOException if a file cannot be read or the segment cannot be written
+     */
+    public void importLegacyFiles(Path dataDirectory, String filePathPattern) throws IOException {
+      checkWritable();
+      synchronized (indexLock) {
+        if (!legacyImported) {
+          importLegacyFilesLocked(dataDirectory, filePathPattern);
+        }
+      }
+    }
+
+    /**
+     * Imports the league's per-round cache files while holding the index lock.
+     *
+     * @param dataDirectory the cache directory
+     * @param filePathPattern pattern of the per-round files without extension
+     * @throws IOException if a file cannot be read or the segment cannot be written
+     */
+    private void importLegacyFilesLocked(Path dataDirectory, String filePathPattern)
+        throws IOException {
+      Path prefix = dataDirectory.resolve(String.format(filePathPattern, leagueId, ""));
+      List<Path> files = new ArrayList<>();
+      if (Files.isDirectory(prefix.getParent())) {
+        try (DirectoryStream<Path> stream =
+            Files.newDirectoryStream(prefix.getParent(), prefix.getFileName() + "*")) {
+          stream.forEach(files::add);
+        }
+      }
+
+      List<Pending> imported = new ArrayList<>();
+      List<Path> importedFiles = new ArrayList<>();
+      for (Path file : files) {
+        if (importLegacyFile(file, prefix.getFileName().toString(), imported)) {
+          importedFiles.add(file);
+          importedFiles.add(file.resolveSibling(file.getFileName() + ".validators"));
+        }
+      }
+      write(imported);
+      synchronized (this) {
+        legacyImported = true;
+        dirty = true;
+      }
+      writeIndex();
+      for (Path file : importedFiles) {
+        Files.deleteIfExists(file);
+      }
+      if (!imported.isEmpty()) {
+        log.info("Imported {} cached rounds into {}", imported.size(), dataPath);
+      }
+    }
+
+    /**
+     * Reads one per-round cache file, if it is a payload in a known encoding.
+     *
+     * @param file the file
+     * @param prefix file name prefix before the round number
+     * @param imported receives the round, unless it is already in the segment
+     * @return true if the file is a per-round cache file that can be deleted
+     * @throws IOException if the file cannot be read
+     */
+    private boolean importLegacyFile(Path file, String prefix, List<Pending> imported)
+        throws IOException {
+      String name = file.getFileName().toString();
+      int extensionStart = name.indexOf('.', prefix.length());
+      int roundNumber;
+      try {
+        roundNumber = Integer.parseInt(name.substring(prefix.length(), extensionStart));
+      } catch (NumberFormatException | IndexOutOfBoundsException e) {
+        return false;
+      }
+
+      Path basePath = file.resolveSibling(name.substring(0, extensionStart));
+      for (CacheEncoding encoding : CacheEncoding.all()) {
+        if (!encoding.resolve(basePath).equals(file) || !FileHelper.hasContent(file)) {
+          continue;
+        }
+        if (get(roundNumber) != null) {
+          return true;
+        }
+
+        byte[] payload;
+        CacheValidators validators;
+        Instant modified;
+        try {
+          payload = Files.readAllBytes(file);
+          modified = Files.getLastModifiedTime(file).toInstant();
+          Path validatorsPath = file.resolveSibling(name + ".validators");
+          validators =
+              Files.exists(validatorsPath)
+                  ? OBJECT_MAPPER.readValue(validatorsPath.toFile(), CacheValidators.class)
+                  : CacheValidators.NONE;
+        } catch (NoSuchFileException e) {
+          log.debug("Cache file {} was imported by another process", file);
+          return false;
+        }
+        try {
+          JsonNode records = encoding.read(payload, OBJECT_MAPPER, JSON_NODE);
+          imported.add(
+              pending(roundNumber, payload, encoding, validators, modified, records.size()));
+        } catch (JsonProcessingException e) {
+          log.warn("Dropping unreadable cache file {}: {}", file, e.getMessage());
+        }
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Creates a round to be written.
+     *
+     * @param round the round/week number
+     * @param payload the encoded payload
+     * @param encoding the encoding of the payload
+     * @param validators HTTP validators of the payload
+     * @param modified when the payload was fetched
+     * @param records number of records in the payload
+     * @return the round, not written yet
+     */
+    private static Pending pending(
+        int round,
+        byte[] payload,
+        CacheEncoding encoding,
+        CacheValidators validators,
+        Instant modified,
+        int records) {
+      Entry entry =
+          new Entry(
+              UNWRITTEN,
+              payload.length,
+              encoding.format(),
+              encoding.compressed(),
+              modified.toEpochMilli(),
+              FileHelper.checksum(payload),
+              records,
+              validators);
+      return new Pending(round, payload, entry);
+    }
+
+    /**
+     * Writes every round queued so far. Runs on the background writer.
+     *
+     * @throws IOException if the data file cannot be written
+     */
+    private void writeQueued() throws IOException {
+      List<Pending> batch;
+      synchronized (this) {
+        batch = new ArrayList<>(queue);
+        queue.clear();
+      }
+      try {
+        write(batch);
+      } catch (IOException e) {
+        // Drop the batch; its rounds are fetched again by the next run
+        synchronized (this) {
+          batch.forEach(queued -> pending.remove(queued.round(), queued));
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Appends rounds to the data file with one gathering write and points the index at them.
+     * Payloads stored already, in the data file or earlier in the batch, are not written again.
+     *
+     * @param batch the rounds to write
+     * @throws IOException if the data file cannot be written
+     */
+    private void write(List<Pending> batch) throws IOException {
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      List<Entry> written = new ArrayList<>(batch.size());
+      FileHelper.withLock(
+          lockPath,
+          () -> {
+            synchronized (writeLock) {
+              // Appended at the current end, which other processes may have moved
+              FileChannel writeChannel = channel();
+              long start = writeChannel.size();
+              List<ByteBuffer> buffers = new ArrayList<>(batch.size());
+              long offset = start;
+              for (Pending queued : batch) {
+                Long stored = findStored(queued, batch, written);
+                if (stored != null) {
+                  written.add(queued.entry().at(stored));
+                  continue;
+                }
+                buffers.add(ByteBuffer.wrap(queued.payload()));
+                written.add(queued.entry().at(offset));
+                offset += queued.payload().length;
+              }
+
+              if (!buffers.isEmpty()) {
+                ByteBuffer[] gathered = buffers.toArray(new ByteBuffer[0]);
+                writeChannel.position(start);
+                while (gathered[gathered.length - 1].hasRemaining()) {
+                  writeChannel.write(gathered);
+                }
+              }
+            }
+            return null;
+          });
+
+      synchronized (this) {
+        for (int i = 0; i < batch.size(); i++) {
+          Pending queued = batch.get(i);
+          // Unless a newer payload of the round is queued already
+          if (!pending.containsKey(queued.round()) || pending.get(queued.round()) == queued) {
+            entries.put(queued.round(), written.get(i));
+            changed.add(queued.round());
+          }
+          pending.remove(queued.round(), queued);
+        }
+        dirty = true;
+      }
+      log.debug("Wrote {} rounds to {}", batch.size(), dataPath);
+    }
+
+    /**
+     * Writes the index if it changed, merged with the index on disk.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    private void writeIndex() throws IOException {
+      writeIndex(true);
+    }
+
+    /**
+     * Writes the index if it changed, atomically replacing the previous one, while holding the
+     * segment's lock file. The data it points to is forced to disk first. The segment monitor is
+     * only held to take a copy of the index and to apply the merged one, so appends continue while
+     * the index is written. When merging, rounds stored by other processes since this segment was
+     * opened are taken from the index on disk, unless this process changed them too.
+     *
+     * @param merge whether to merge with the index on disk
+     * @throws IOException if the index cannot be written
+     */
+    private void writeIndex(boolean merge) throws IOException {
+      if (readOnly) {
+        return;
+      }
+      synchronized (indexLock) {
+        Index index;
+        Set<Integer> ours;
+        synchronized (this) {
+          if (!dirty) {
+            return;
+          }
+          index = new Index(legacyImported, new TreeMap<>(entries));
+          ours = new HashSet<>(changed);
+          changed.clear();
+          dirty = false;
+        }
+
+        Index written;
+        try {
+          written =
+              FileHelper.withLock(
+                  lockPath,
+                  () -> {
+                    Index merged = merge ? merge(index, ours) : index;
+                    synchronized (writeLock) {
+                      FileChannel dataChannel = channel;
+                      if (dataChannel != null) {
+                        dataChannel.force(false);
+                      }
+                    }
+
+                    Path partPath = FileHelper.temporaryFile(indexPath);
+                    try {
+                      OBJECT_MAPPER.writeValue(partPath.toFile(), merged);
+                      FileHelper.move(partPath, indexPath);
+                    } catch (IOException e) {
+                      Files.deleteIfExists(partPath);
+                      throw e;
+                    }
+                    return merged;
+                  });
+        } catch (IOException e) {
+          synchronized (this) {
+            changed.addAll(ours);
+            dirty = true;
+          }
+          throw e;
+        }
+
+        synchronized (this) {
+          legacyImported |= written.legacyImported();
+          // Rounds changed since the copy was taken are newer than the ones written
+          written
+              .rounds()
+              .forEach(
+                  (round, entry) -> {
+                    if (!changed.contains(round)) {
+                      entries.put(round, entry);
+                    }
+                  });
+        }
+      }
+    }
+
+    /**
+     * Merges an index with the index on disk: rounds this process changed are kept, and the others
+     * are taken from disk, where other processes may have stored them. Must hold the segment's lock
+     * file.
+     *
+     * @param index the index of this process
+     * @param ours rounds this process changed since the index was last written
+     * @return the merged index
+     * @throws IOException if the index on disk cannot be read
+     */
+    private Index merge(Index index, Set<Integer> ours) throws IOException {
+      if (!FileHelper.hasContent(indexPath)) {
+        return index;
+      }
+      Index onDisk = OBJECT_MAPPER.readValue(indexPath.toFile(), Index.class);
+      long dataSize = Files.exists(dataPath) ? Files.size(dataPath) : 0;
+      TreeMap<Integer, Entry> rounds = new TreeMap<>(index.rounds());
+      if (onDisk.rounds() != null) {
+        onDisk
+            .rounds()
+            .forEach(
+                (round, entry) -> {
+                  if (!ours.contains(round) && entry.offset() + entry.length() <= dataSize) {
+                    rounds.put(round, entry);
+                  }
+                });
+      }
+      return new Index(index.legacyImported() || onDisk.legacyImported(), rounds);
+    }
+
+    /**
+     * Checks whether the index on disk is still the one this segment was opened with.
+     *
+     * @return false if the index was written, replaced or created since
+     * @throws IOException if the index cannot be checked
+     */
+    private boolean isCurrent() throws IOException {
+      return Objects.equals(indexModified, lastModified(indexPath));
+    }
+
+    /**
+     * Fails if the segment is read-only.
+     *
+     * @throws IllegalStateException if the segment is read-only
+     */
+    private void checkWritable() {
+      if (readOnly) {
+        throw new IllegalStateException("Segment " + dataPath + " is read-only");
+      }
+    }
+
+    /**
+     * Gets the modification time of a file.
+     *
+     * @param path the file
+     * @return the modification time, or null if the file does not exist
+     * @throws IOException if the file cannot be checked
+     */
+    private static FileTime lastModified(Path path) throws IOException {
+      try {
+        return Files.getLastModifiedTime(path);
+      } catch (NoSuchFileException e) {
+        return null;
+      }
+    }
+
+    /**
+     * Closes the data file. Queued rounds and index changes must have been written first.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+      synchronized (channelLock) {
+        if (channel != null) {
+          channel.close();
+          channel = null;
+        }
+      }
+    }
+
+    /**
+     * Gets the data file channel, opening it on first use.
+     *
+     * @return the channel
+     * @throws IOException if the data file cannot be opened
+     */
+    private FileChannel channel() throws IOException {
+      FileChannel dataChannel = channel;
+      if (dataChannel != null) {
+        return dataChannel;
+      }
+      synchronized (channelLock) {
+        if (channel == null) {
+          Files.createDirectories(dataPath.getParent());
+          channel =
+              FileChannel.open(
+                  dataPath,
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.READ,
+                  StandardOpenOption.WRITE);
+        }
+        return channel;
+      }
+    }
+  }
+}
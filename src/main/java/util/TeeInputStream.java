@@ -0,0 +1,76 @@
+package util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Input stream decorator that copies every byte read through it to an output stream. Closing the
+ * stream first drains any unread bytes into the copy, so the copy is always complete once the
+ * stream is closed. The copy itself is not closed.
+ */
+public class TeeInputStream extends FilterInputStream {
+
+  private final OutputStream copy;
+
+  /**
+   * Wraps the given stream.
+   *
+   * @param in the stream to read
+   * @param copy receives a copy of every byte read
+   */
+  public TeeInputStream(InputStream in, OutputStream copy) {
+    super(in);
+    this.copy = copy;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b >= 0) {
+      copy.write(b);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int n = super.read(b, off, len);
+    if (n > 0) {
+      copy.write(b, off, n);
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    byte[] buffer = new byte[(int) Math.min(n, 8192)];
+    long skipped = 0;
+    while (skipped < n) {
+      int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+      if (read < 0) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      byte[] buffer = new byte[8192];
+      while (read(buffer, 0, buffer.length) >= 0) {
+        // drain remaining bytes into the copy
+      }
+    } finally {
+      super.close();
+    }
+  }
+}
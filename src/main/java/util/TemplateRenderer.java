@@ -8,7 +8,6 @@ import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,9 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TemplateRenderer {
 
-  private static final Path REPORTS_DIRECTORY = Paths.get("output", "reports");
-
-  // Singleton PebbleEngine instance configured with classpath loader
+  // Singleton PebbleEngine instance configured with classpath loader, shared by all batch workers
   private static final PebbleEngine ENGINE =
       new PebbleEngine.Builder().loader(new ClasspathLoader()).build();
 
@@ -32,14 +29,19 @@ public class TemplateRenderer {
    *
    * @param report the report object to render
    * @param templateName the template file name (e.g., "trades.html")
+   * @param reportsDirectory directory all reports of the run are written to
    * @param reportType the type of report (e.g., "trades", "matchups", "waivers")
    * @param fileName the output HTML file name (e.g., "trade_report.html")
    */
   public static void renderReport(
-      Object report, String templateName, String reportType, String fileName) {
+      Object report,
+      String templateName,
+      Path reportsDirectory,
+      String reportType,
+      String fileName) {
     try {
       // Create report directory if it doesn't exist
-      Path reportDir = REPORTS_DIRECTORY.resolve(reportType);
+      Path reportDir = reportsDirectory.resolve(reportType);
       Files.createDirectories(reportDir);
 
       // Compile template from classpath
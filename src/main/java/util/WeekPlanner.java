@@ -0,0 +1,118 @@
+package util;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.LeagueDto;
+
+/**
+ * Utility class that works out which weeks of a league's season can have matchups and transactions,
+ * from the league's settings and status, so only those weeks are requested.
+ *
+ * <p>Matchups run from the league's start week through its last playoff week. Transactions can also
+ * happen before the start week, so they run from week 1; while a season is in progress they stop at
+ * the current week. Leagues that have not drafted yet have no matchups and only week 1
+ * transactions. When the settings are missing, every round up to {@link #MAX_ROUNDS} is planned.
+ */
+@Slf4j
+public class WeekPlanner {
+
+  /** Number of rounds probed when a league's settings are unknown. */
+  public static final int MAX_ROUNDS = 20;
+
+  private static final int LAST_REGULAR_SEASON_WEEK = 18;
+  private static final int TWO_WEEK_CHAMPIONSHIP = 1;
+  private static final int TWO_WEEKS_PER_ROUND = 2;
+
+  /**
+   * Weeks to fetch for one league.
+   *
+   * @param matchupWeeks weeks that can have matchups, in ascending order
+   * @param transactionWeeks weeks that can have transactions, in ascending order
+   */
+  public record WeekPlan(List<Integer> matchupWeeks, List<Integer> transactionWeeks) {}
+
+  /**
+   * Plans the weeks to fetch for a league.
+   *
+   * @param league the league, including its settings
+   * @return the weeks to fetch, or {@link #fallback()} if the settings are missing
+   */
+  public static WeekPlan plan(LeagueDto league) {
+    LeagueDto.SettingsDto settings = league.getSettings();
+    if (settings == null || settings.getStartWeek() == null) {
+      log.warn("League {} has no week settings, probing all rounds", league.getLeagueId());
+      return fallback();
+    }
+
+    String status = league.getStatus() == null ? "" : league.getStatus();
+    if (status.equals("pre_draft") || status.equals("drafting")) {
+      log.debug("League {} is {}, no matchups yet", league.getLeagueId(), status);
+      return new WeekPlan(List.of(), List.of(1));
+    }
+
+    int startWeek = Math.max(1, settings.getStartWeek());
+    int lastWeek = Math.max(startWeek, getLastWeek(settings));
+    int lastTransactionWeek = lastWeek;
+    if (status.equals("in_season") && settings.getLeg() != null && settings.getLeg() > 0) {
+      lastTransactionWeek = Math.min(lastWeek, settings.getLeg());
+    }
+
+    WeekPlan plan = new WeekPlan(weeks(startWeek, lastWeek), weeks(1, lastTransactionWeek));
+    log.debug(
+        "League {} ({}): matchup weeks {}-{}, transaction weeks 1-{}",
+        league.getLeagueId(),
+        status,
+        startWeek,
+        lastWeek,
+        lastTransactionWeek);
+    return plan;
+  }
+
+  /**
+   * Plans every round from 0 up to {@link #MAX_ROUNDS}, for leagues whose settings are unknown.
+   *
+   * @return plan covering all rounds
+   */
+  public static WeekPlan fallback() {
+    List<Integer> rounds = weeks(0, MAX_ROUNDS - 1);
+    return new WeekPlan(rounds, rounds);
+  }
+
+  /**
+   * Gets the last week of the season: the final playoff week, or the last regular season week if
+   * the league has no playoffs.
+   *
+   * @param settings the league settings
+   * @return the last week that can have matchups
+   */
+  private static int getLastWeek(LeagueDto.SettingsDto settings) {
+    Integer playoffWeekStart = settings.getPlayoffWeekStart();
+    int playoffTeams = settings.getPlayoffTeams() == null ? 0 : settings.getPlayoffTeams();
+    if (playoffWeekStart == null || playoffWeekStart <= 0 || playoffTeams < 2) {
+      return LAST_REGULAR_SEASON_WEEK;
+    }
+
+    // Teams without a first-round opponent get a bye, so round up
+    int rounds = 32 - Integer.numberOfLeadingZeros(playoffTeams - 1);
+    int roundType = settings.getPlayoffRoundType() == null ? 0 : settings.getPlayoffRoundType();
+    int playoffWeeks =
+        switch (roundType) {
+          case TWO_WEEK_CHAMPIONSHIP -> rounds + 1;
+          case TWO_WEEKS_PER_ROUND -> rounds * 2;
+          default -> rounds;
+        };
+    return playoffWeekStart + playoffWeeks - 1;
+  }
+
+  /**
+   * Lists the weeks in an inclusive range.
+   *
+   * @param first first week
+   * @param last last week
+   * @return the weeks in ascending order
+   */
+  private static List<Integer> weeks(int first, int last) {
+    return IntStream.rangeClosed(first, last).boxed().toList();
+  }
+}